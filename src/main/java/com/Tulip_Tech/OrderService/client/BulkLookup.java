@@ -0,0 +1,146 @@
+package com.Tulip_Tech.OrderService.client;
+
+import com.Tulip_Tech.OrderService.exception.CustomException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Chunked id lookups against a downstream bulk endpoint. When the downstream answers that the
+ * bulk endpoint does not exist, the lookup switches to per-id calls and probes the bulk endpoint
+ * again once {@link BulkSupport}'s cool-down has passed, so a rolling deploy that adds it is picked up.
+ * A 400 from the bulk call is ambiguous: a service without the bulk endpoint may route
+ * {@code /batch} to {@code /{id}} and reject it as a malformed id. That chunk falls back to
+ * per-id calls without marking the endpoint missing. An id missing from the result was not
+ * found downstream; any other failure is propagated.
+ */
+@Slf4j
+final class BulkLookup {
+
+    // 400 is left out on purpose: an existing endpoint rejecting one request is not a missing endpoint
+    private static final Set<Integer> MISSING_ENDPOINT_STATUSES = Set.of(404, 405, 501);
+    private static final Set<Integer> REJECTED_REQUEST_STATUSES = Set.of(400);
+    private static final Duration REPROBE_AFTER = Duration.ofMinutes(5);
+
+    private BulkLookup() {
+    }
+
+    static <T> Mono<Map<Long, T>> fetch(Collection<Long> ids,
+                                        int chunkSize,
+                                        int concurrency,
+                                        BulkSupport bulkSupport,
+                                        String dependency,
+                                        Function<List<Long>, Mono<List<T>>> bulkCall,
+                                        Function<Long, Mono<T>> singleCall,
+                                        Function<T, Long> keyOf) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+            chunks.add(distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size())));
+        }
+
+        return Flux.fromIterable(chunks)
+                .flatMap(chunk -> fetchChunk(chunk, concurrency, bulkSupport, dependency, bulkCall, singleCall), concurrency)
+                .collectMap(keyOf);
+    }
+
+    private static <T> Flux<T> fetchChunk(List<Long> chunk,
+                                          int concurrency,
+                                          BulkSupport bulkSupport,
+                                          String dependency,
+                                          Function<List<Long>, Mono<List<T>>> bulkCall,
+                                          Function<Long, Mono<T>> singleCall) {
+        if (!bulkSupport.available()) {
+            return fetchEach(chunk, concurrency, dependency, singleCall);
+        }
+
+        return bulkCall.apply(chunk)
+                .flatMapIterable(found -> found)
+                .onErrorResume(BulkLookup::isMissingEndpoint, ex -> {
+                    log.warn("Bulk lookup not available on {}, falling back to per-id calls for {}: {}",
+                            dependency, bulkSupport.coolDown, ex.getMessage());
+                    bulkSupport.markMissing();
+                    return fetchEach(chunk, concurrency, dependency, singleCall);
+                })
+                .onErrorResume(ex -> hasStatus(ex, REJECTED_REQUEST_STATUSES), ex -> {
+                    log.warn("Bulk lookup on {} rejected, using per-id calls for these {} ids: {}",
+                            dependency, chunk.size(), ex.getMessage());
+                    return fetchEach(chunk, concurrency, dependency, singleCall);
+                });
+    }
+
+    private static <T> Flux<T> fetchEach(List<Long> chunk,
+                                         int concurrency,
+                                         String dependency,
+                                         Function<Long, Mono<T>> singleCall) {
+        return Flux.fromIterable(chunk)
+                .flatMap(id -> singleCall.apply(id)
+                        .onErrorResume(BulkLookup::isClientError, ex -> {
+                            log.debug("No {} details for id {}: {}", dependency, id, ex.getMessage());
+                            return Mono.empty();
+                        }), concurrency);
+    }
+
+    static boolean isClientError(Throwable ex) {
+        if (ex instanceof CustomException customException) {
+            return customException.getHttpStatus().is4xxClientError();
+        }
+        if (ex instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().is4xxClientError();
+        }
+        return false;
+    }
+
+    private static boolean isMissingEndpoint(Throwable ex) {
+        return hasStatus(ex, MISSING_ENDPOINT_STATUSES);
+    }
+
+    private static boolean hasStatus(Throwable ex, Set<Integer> statuses) {
+        if (ex instanceof CustomException customException) {
+            return statuses.contains(customException.getHttpStatus().value());
+        }
+        if (ex instanceof WebClientResponseException responseException) {
+            return statuses.contains(responseException.getStatusCode().value());
+        }
+        return false;
+    }
+
+    /**
+     * Per-client memory of whether the bulk endpoint exists. After a missing-endpoint answer it
+     * reports the endpoint unavailable until {@code coolDown} has passed; the next lookup then
+     * tries it again.
+     */
+    static final class BulkSupport {
+
+        private final Duration coolDown;
+        private volatile boolean missing;
+        private volatile long retryAt;
+
+        BulkSupport() {
+            this(REPROBE_AFTER);
+        }
+
+        BulkSupport(Duration coolDown) {
+            this.coolDown = coolDown;
+        }
+
+        boolean available() {
+            return !missing || System.nanoTime() - retryAt >= 0;
+        }
+
+        void markMissing() {
+            retryAt = System.nanoTime() + coolDown.toNanos();
+            missing = true;
+        }
+    }
+}
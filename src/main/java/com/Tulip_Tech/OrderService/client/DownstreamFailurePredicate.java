@@ -0,0 +1,24 @@
+package com.Tulip_Tech.OrderService.client;
+
+import com.Tulip_Tech.OrderService.exception.CustomException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+
+import java.util.function.Predicate;
+
+/**
+ * Decides which errors count towards opening a downstream circuit breaker. A 4xx answer (e.g.
+ * insufficient stock) means the dependency is healthy, and a bulkhead rejection never reached
+ * it, so neither is recorded as a failure.
+ */
+public class DownstreamFailurePredicate implements Predicate<Throwable> {
+
+    @Override
+    public boolean test(Throwable throwable) {
+        if (throwable instanceof BulkheadFullException) {
+            return false;
+        }
+        return !(throwable instanceof CustomException customException
+                && customException.getHttpStatus() != null
+                && customException.getHttpStatus().is4xxClientError());
+    }
+}
@@ -0,0 +1,37 @@
+package com.Tulip_Tech.OrderService.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs a reactive downstream call through a circuit breaker and bulkhead, for calls composed
+ * inside a client where the annotation proxy never sees them. As with the annotations the
+ * bulkhead sits inside the circuit breaker; a rejected call fails with
+ * {@code CallNotPermittedException} or {@link BulkheadFullException} without being subscribed.
+ */
+final class DownstreamGuard {
+
+    private DownstreamGuard() {
+    }
+
+    static <T> Mono<T> guard(Mono<T> call, CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+        return Mono.defer(() -> {
+            circuitBreaker.acquirePermission();
+            if (!bulkhead.tryAcquirePermission()) {
+                // never reached the dependency, so it says nothing about its health
+                circuitBreaker.releasePermission();
+                return Mono.error(BulkheadFullException.createBulkheadFullException(bulkhead));
+            }
+            long start = circuitBreaker.getCurrentTimestamp();
+            return call
+                    .doOnSuccess(value -> circuitBreaker.onSuccess(circuitBreaker.getCurrentTimestamp() - start,
+                            circuitBreaker.getTimestampUnit()))
+                    .doOnError(ex -> circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - start,
+                            circuitBreaker.getTimestampUnit(), ex))
+                    .doOnCancel(circuitBreaker::releasePermission)
+                    .doFinally(signal -> bulkhead.onComplete());
+        });
+    }
+}
@@ -0,0 +1,169 @@
+package com.Tulip_Tech.OrderService.client;
+
+import com.Tulip_Tech.OrderService.config.HedgeProfile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Hedged calls for idempotent reads. When the first attempt has not answered within the
+ * configured percentile of the dependency's recent latencies, a second attempt is sent and
+ * whichever answers first wins; the other is cancelled. A failed attempt does not win: the call
+ * fails only when both do, with the first attempt's error, except for a 4xx, which is the answer
+ * and ends the call at once. Hedges draw from a budget that grows
+ * by {@code budget-ratio} per call, so hedging adds at most that share of extra load.
+ * Each attempt opens its own exchange, so it can land on another pooled connection and,
+ * behind the service address, on another replica.
+ */
+public class Hedger {
+
+    private static final int SAMPLES = 1_024;
+    private static final int RECOMPUTE_EVERY = 64;
+    private static final int MIN_SAMPLES = 100;
+    private static final long TOKEN = 1_000;
+
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long depositPerCall;
+    private final long maxBudget;
+
+    private final long[] samples = new long[SAMPLES];
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong budget;
+    private volatile long hedgeDelayNanos;
+
+    private final Counter sent;
+    private final Counter wins;
+    private final Counter denied;
+
+    public Hedger(String dependency, HedgeProfile profile, MeterRegistry meterRegistry) {
+        this.enabled = profile.isEnabled();
+        this.percentile = profile.getPercentile();
+        this.minDelayNanos = profile.getMinDelay().toNanos();
+        this.depositPerCall = Math.round(profile.getBudgetRatio() * TOKEN);
+        this.maxBudget = profile.getBudgetBurst() * TOKEN;
+        this.budget = new AtomicLong(maxBudget);
+
+        this.sent = Counter.builder("downstream.hedge.sent")
+                .tag("dependency", dependency)
+                .description("Second attempts sent because the first was slow")
+                .register(meterRegistry);
+        this.wins = Counter.builder("downstream.hedge.wins")
+                .tag("dependency", dependency)
+                .description("Calls answered by the second attempt")
+                .register(meterRegistry);
+        this.denied = Counter.builder("downstream.hedge.denied")
+                .tag("dependency", dependency)
+                .description("Hedges skipped because the budget was used up")
+                .register(meterRegistry);
+        Gauge.builder("downstream.hedge.delay", this, hedger -> hedger.hedgeDelayNanos / 1_000_000.0)
+                .tag("dependency", dependency)
+                .baseUnit("milliseconds")
+                .description("Current wait before a second attempt is sent")
+                .register(meterRegistry);
+    }
+
+    public static Hedger disabled(String dependency) {
+        return new Hedger(dependency, new HedgeProfile(), new SimpleMeterRegistry());
+    }
+
+    public <T> Mono<T> call(Supplier<Mono<T>> attempt) {
+        if (!enabled) {
+            return attempt.get();
+        }
+        return Mono.defer(() -> {
+            deposit();
+            long start = System.nanoTime();
+            // a cancelled first attempt still took at least this long
+            Mono<Attempt<T>> primary = attempt(attempt, false)
+                    .doFinally(signal -> record(System.nanoTime() - start));
+            long delay = hedgeDelayNanos;
+            if (delay == 0) {
+                return primary.flatMap(Attempt::result);
+            }
+
+            Mono<Attempt<T>> hedge = Mono.delay(Duration.ofNanos(delay)).flatMap(tick -> {
+                if (!withdraw()) {
+                    denied.increment();
+                    return Mono.empty();
+                }
+                sent.increment();
+                return attempt(attempt, true);
+            });
+            return Mono.firstWithValue(primary, hedge)
+                    .onErrorMap(NoSuchElementException.class, Hedger::firstFailure)
+                    .doOnNext(winner -> {
+                        if (winner.hedged()) {
+                            wins.increment();
+                        }
+                    })
+                    .flatMap(Attempt::result);
+        });
+    }
+
+    // no attempt produced a value; report what the first attempt failed with, not that nothing came
+    private static Throwable firstFailure(NoSuchElementException ex) {
+        Throwable cause = ex.getCause();
+        if (cause != null) {
+            return Exceptions.isMultiple(cause) ? Exceptions.unwrapMultiple(cause).get(0) : cause;
+        }
+        return ex.getSuppressed().length > 0 ? ex.getSuppressed()[0] : ex;
+    }
+
+    // an empty answer and a 4xx are answers too, so they are turned into values that can win
+    private static <T> Mono<Attempt<T>> attempt(Supplier<Mono<T>> attempt, boolean hedged) {
+        return attempt.get()
+                .map(value -> new Attempt<>(value, null, hedged))
+                .defaultIfEmpty(new Attempt<>(null, null, hedged))
+                .onErrorResume(BulkLookup::isClientError, ex -> Mono.just(new Attempt<>(null, ex, hedged)));
+    }
+
+    Duration hedgeDelay() {
+        return Duration.ofNanos(hedgeDelayNanos);
+    }
+
+    // unsynchronized writes can lose a sample under contention, which does not matter for a percentile
+    void record(long nanos) {
+        long count = recorded.getAndIncrement();
+        samples[(int) (count % SAMPLES)] = nanos;
+        if (count + 1 >= MIN_SAMPLES && (count + 1) % RECOMPUTE_EVERY == 0) {
+            int size = (int) Math.min(count + 1, SAMPLES);
+            long[] window = Arrays.copyOf(samples, size);
+            Arrays.sort(window);
+            int index = Math.clamp((long) Math.ceil(percentile * size) - 1, 0, size - 1);
+            hedgeDelayNanos = Math.max(minDelayNanos, window[index]);
+        }
+    }
+
+    private void deposit() {
+        budget.accumulateAndGet(depositPerCall, (current, deposit) -> Math.min(maxBudget, current + deposit));
+    }
+
+    private boolean withdraw() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    private record Attempt<T>(T value, Throwable failure, boolean hedged) {
+
+        Mono<T> result() {
+            return failure != null ? Mono.error(failure) : Mono.justOrEmpty(value);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.Tulip_Tech.OrderService.client;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-flight requests and peak-EWMA latency per service instance, fed by the load balancer
+ * lifecycle callbacks of the WebClient filter. A slower answer raises an instance's average
+ * at once, a faster one lowers it gradually over {@code decay}; failures count as
+ * {@code failurePenalty} so an instance that fails fast does not look like the fastest one.
+ */
+public class InstanceLoadTracker implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    private final long decayNanos;
+    private final long failurePenaltyNanos;
+    private final ConcurrentMap<String, InstanceLoad> loads = new ConcurrentHashMap<>();
+
+    public InstanceLoadTracker(Duration decay, Duration failurePenalty) {
+        this.decayNanos = decay.toNanos();
+        this.failurePenaltyNanos = failurePenalty.toNanos();
+    }
+
+    // raw types to match LoadBalancerLifecycle; Class<?> would not override it
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return RequestDataContext.class.isAssignableFrom(requestContextClass)
+                && ResponseData.class.isAssignableFrom(responseClass)
+                && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse.hasServer()) {
+            request.getContext().setRequestStartTime(System.nanoTime());
+            start(lbResponse.getServer());
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        long started = completionContext.getLoadBalancerRequest().getContext().getRequestStartTime();
+        complete(lbResponse.getServer(), System.nanoTime() - started,
+                completionContext.status() == CompletionContext.Status.FAILED);
+    }
+
+    void start(ServiceInstance instance) {
+        load(instance).inFlight.incrementAndGet();
+    }
+
+    void complete(ServiceInstance instance, long latencyNanos, boolean failed) {
+        InstanceLoad load = load(instance);
+        load.inFlight.decrementAndGet();
+        load.observe(failed ? Math.max(latencyNanos, failurePenaltyNanos) : latencyNanos, System.nanoTime(), decayNanos);
+    }
+
+    /**
+     * Expected wait on this instance: its latency average scaled by the requests already queued
+     * there. Instances without data cost next to nothing, so new replicas get traffic at once.
+     */
+    double cost(ServiceInstance instance) {
+        InstanceLoad load = loads.get(key(instance));
+        if (load == null) {
+            return 1;
+        }
+        return (load.ewmaNanos + 1) * (Math.max(0, load.inFlight.get()) + 1);
+    }
+
+    static String key(ServiceInstance instance) {
+        return instance.getInstanceId() != null ? instance.getInstanceId() : instance.getHost() + ":" + instance.getPort();
+    }
+
+    private InstanceLoad load(ServiceInstance instance) {
+        return loads.computeIfAbsent(key(instance), key -> new InstanceLoad());
+    }
+
+    private static final class InstanceLoad {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile double ewmaNanos;
+        private long lastObserved;
+
+        void observe(long latencyNanos, long now, long decayNanos) {
+            lock.lock();
+            try {
+                if (latencyNanos > ewmaNanos) {
+                    ewmaNanos = latencyNanos;
+                } else {
+                    double weight = Math.exp(-(now - lastObserved) / (double) decayNanos);
+                    ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+                }
+                lastObserved = now;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.Tulip_Tech.OrderService.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stock budgets for hot products. Once a product sees {@code hot-threshold} orders within
+ * one sweep interval, a block of {@code block-size} units is taken from product-service with a
+ * single {@code reduceQuantity} call and later orders are served from that block with a CAS on
+ * an {@link AtomicLong}. When the budget falls below {@code low-watermark} of a block another
+ * block is leased in the background, which also extends the lease by {@code ttl}. A lease that
+ * is not renewed expires and its unused units are given back with {@code restoreQuantity}, so
+ * product-service stays the source of truth and a product that goes cold holds no stock here.
+ * Orders that find no lease or not enough budget fall back to the direct call.
+ * <p>
+ * A failed give-back is retried on later sweeps with a doubling {@code restore-backoff}, at most
+ * {@code restore-attempts} times. Units product-service rejects with a 4xx, or that still could
+ * not be given back after the last attempt, are abandoned and counted.
+ */
+@Component
+@Slf4j
+public class InventoryLeases {
+
+    private final ProductServiceClient productServiceClient;
+    private final ProductDetailsCache productDetailsCache;
+    private final boolean enabled;
+    private final long blockSize;
+    private final long minBlockSize;
+    private final int hotThreshold;
+    private final long lowWatermark;
+    private final Duration ttl;
+
+    private final ConcurrentMap<Long, Lease> leases = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, LongAdder> demand = new ConcurrentHashMap<>();
+    private final Set<Long> acquiring = ConcurrentHashMap.newKeySet();
+    private final int restoreAttempts;
+    private final Duration restoreBackoff;
+    // units that could not be given back yet, retried by the sweep once their backoff has passed
+    private final ConcurrentMap<Long, Unreturned> unreturned = new ConcurrentHashMap<>();
+    private final ExecutorService leasers = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter leased;
+    private final Counter returned;
+    private final Counter abandoned;
+
+    public InventoryLeases(ProductServiceClient productServiceClient,
+                           ProductDetailsCache productDetailsCache,
+                           MeterRegistry meterRegistry,
+                           @Value("${product.lease.enabled:false}") boolean enabled,
+                           @Value("${product.lease.block-size:100}") long blockSize,
+                           @Value("${product.lease.hot-threshold:20}") int hotThreshold,
+                           @Value("${product.lease.low-watermark:0.25}") double lowWatermark,
+                           @Value("${product.lease.ttl:30s}") Duration ttl,
+                           @Value("${product.lease.restore-attempts:5}") int restoreAttempts,
+                           @Value("${product.lease.restore-backoff:5s}") Duration restoreBackoff) {
+        this.productServiceClient = productServiceClient;
+        this.productDetailsCache = productDetailsCache;
+        this.enabled = enabled;
+        this.blockSize = blockSize;
+        this.minBlockSize = Math.max(1, blockSize / 8);
+        this.hotThreshold = hotThreshold;
+        this.lowWatermark = (long) (blockSize * lowWatermark);
+        this.ttl = ttl;
+        this.restoreAttempts = restoreAttempts;
+        this.restoreBackoff = restoreBackoff;
+
+        this.hits = Counter.builder("product.lease.reservations")
+                .tag("outcome", "local")
+                .description("Orders whose stock came from a local lease")
+                .register(meterRegistry);
+        this.misses = Counter.builder("product.lease.reservations")
+                .tag("outcome", "direct")
+                .description("Orders that had to reduce stock at product-service directly")
+                .register(meterRegistry);
+        this.leased = Counter.builder("product.lease.units")
+                .tag("direction", "leased")
+                .description("Units leased from product-service")
+                .register(meterRegistry);
+        this.returned = Counter.builder("product.lease.units")
+                .tag("direction", "returned")
+                .description("Unused units given back to product-service")
+                .register(meterRegistry);
+        this.abandoned = Counter.builder("product.lease.units")
+                .tag("direction", "abandoned")
+                .description("Units that could not be given back to product-service")
+                .register(meterRegistry);
+        Gauge.builder("product.lease.active", leases, ConcurrentMap::size)
+                .description("Products currently served from a local lease")
+                .register(meterRegistry);
+    }
+
+    public static InventoryLeases disabled() {
+        return new InventoryLeases(null, null, new SimpleMeterRegistry(), false, 0, 0, 0, Duration.ZERO, 0, Duration.ZERO);
+    }
+
+    /**
+     * Takes {@code quantity} units from the product's local budget. False means nothing was
+     * reserved and the caller has to reduce the stock at product-service itself.
+     */
+    public boolean tryReserve(Long productId, long quantity) {
+        if (!enabled) {
+            return false;
+        }
+
+        Lease lease = leases.get(productId);
+        long left = lease == null ? -1 : lease.take(quantity);
+        if (left < 0) {
+            misses.increment();
+            if (lease == null) {
+                noteDemand(productId);
+            } else {
+                renew(productId, lease);
+            }
+            return false;
+        }
+
+        hits.increment();
+        if (left < lowWatermark) {
+            renew(productId, lease);
+        }
+        return true;
+    }
+
+    /**
+     * Gives back stock an order took but could not keep, e.g. when saving the order failed. The
+     * units go into the product's lease if one is active and to product-service otherwise. With
+     * leasing disabled product-service is not expected to offer {@code restoreQuantity}, so the
+     * units are only logged and counted as abandoned.
+     */
+    public void release(Long productId, long quantity) {
+        if (!enabled) {
+            abandon(productId, quantity, "leasing is disabled");
+            return;
+        }
+        Lease lease = leases.get(productId);
+        if (lease == null) {
+            giveBack(productId, quantity);
+            return;
+        }
+        lease.remaining.addAndGet(quantity);
+        if (lease.closed) {
+            giveBack(productId, lease.remaining.getAndSet(0));
+        }
+    }
+
+    private void noteDemand(Long productId) {
+        LongAdder orders = demand.computeIfAbsent(productId, id -> new LongAdder());
+        orders.increment();
+        if (orders.sum() >= hotThreshold && acquiring.add(productId)) {
+            leasers.execute(() -> {
+                try {
+                    acquire(productId);
+                } finally {
+                    acquiring.remove(productId);
+                }
+            });
+        }
+    }
+
+    void acquire(Long productId) {
+        if (leases.containsKey(productId)) {
+            return;
+        }
+        long units = lease(productId);
+        if (units > 0) {
+            leases.put(productId, new Lease(units, Instant.now().plus(ttl)));
+            log.info("Leased {} units of productId {}", units, productId);
+        }
+    }
+
+    private void renew(Long productId, Lease lease) {
+        if (!lease.renewing.compareAndSet(false, true)) {
+            return;
+        }
+        leasers.execute(() -> {
+            try {
+                long units = lease(productId);
+                if (units == 0) {
+                    return;
+                }
+                lease.remaining.addAndGet(units);
+                lease.expiresAt = Instant.now().plus(ttl);
+                // the lease expired while the block was in flight; the sweep has already run
+                if (lease.closed) {
+                    giveBack(productId, lease.remaining.getAndSet(0));
+                }
+            } finally {
+                lease.renewing.set(false);
+            }
+        });
+    }
+
+    // a smaller block is tried when product-service does not have a full one
+    private long lease(Long productId) {
+        for (long units = blockSize; units >= minBlockSize; units /= 2) {
+            try {
+                productServiceClient.reduceQuantity(productId, units);
+                leased.increment(units);
+                productDetailsCache.invalidate(productId);
+                return units;
+            } catch (RuntimeException ex) {
+                if (!BulkLookup.isClientError(ex)) {
+                    log.warn("Leasing stock of productId {} failed: {}", productId, ex.getMessage());
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    @Scheduled(fixedDelayString = "${product.lease.sweep-interval:5s}")
+    public void sweep() {
+        if (enabled) {
+            Instant now = Instant.now();
+            leases.forEach((productId, lease) -> {
+                if (lease.expiresAt.isBefore(now) && leases.remove(productId, lease)) {
+                    close(productId, lease);
+                }
+            });
+            demand.clear();
+        }
+        Instant now = Instant.now();
+        unreturned.forEach((productId, pending) -> {
+            if (!pending.retryAt().isAfter(now) && unreturned.remove(productId, pending)) {
+                giveBack(productId, pending.units(), pending.attempts());
+            }
+        });
+    }
+
+    private void close(Long productId, Lease lease) {
+        lease.closed = true;
+        long unused = lease.remaining.getAndSet(0);
+        log.info("Lease of productId {} expired, returning {} units", productId, unused);
+        giveBack(productId, unused);
+    }
+
+    private void giveBack(Long productId, long units) {
+        giveBack(productId, units, 0);
+    }
+
+    private void giveBack(Long productId, long units, int attempts) {
+        if (units <= 0) {
+            return;
+        }
+        try {
+            productServiceClient.restoreQuantity(productId, units);
+            returned.increment(units);
+            productDetailsCache.invalidate(productId);
+        } catch (RuntimeException ex) {
+            if (BulkLookup.isClientError(ex)) {
+                abandon(productId, units, ex.getMessage());
+                return;
+            }
+            log.warn("Returning {} units of productId {} failed, retrying later: {}", units, productId, ex.getMessage());
+            // a failure merges into units already waiting for the same product; the pair then
+            // shares the higher attempt count
+            unreturned.compute(productId, (id, pending) -> {
+                long total = units + (pending == null ? 0 : pending.units());
+                int made = Math.max(attempts, pending == null ? 0 : pending.attempts()) + 1;
+                if (made >= restoreAttempts) {
+                    abandon(id, total, ex.getMessage());
+                    return null;
+                }
+                return new Unreturned(total, made, Instant.now().plus(restoreBackoff.multipliedBy(1L << Math.min(made - 1, 6))));
+            });
+        }
+    }
+
+    private void abandon(Long productId, long units, String reason) {
+        log.error("Abandoning {} units of productId {}, they stay taken at product-service: {}", units, productId, reason);
+        abandoned.increment(units);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        leasers.shutdown();
+        leases.forEach((productId, lease) -> {
+            if (leases.remove(productId, lease)) {
+                close(productId, lease);
+            }
+        });
+        // last chance for units still waiting out their backoff
+        unreturned.forEach((productId, pending) -> {
+            if (unreturned.remove(productId, pending)) {
+                giveBack(productId, pending.units(), restoreAttempts);
+            }
+        });
+    }
+
+    private record Unreturned(long units, int attempts, Instant retryAt) {
+    }
+
+    private static final class Lease {
+
+        private final AtomicLong remaining;
+        private final AtomicBoolean renewing = new AtomicBoolean();
+        private volatile Instant expiresAt;
+        private volatile boolean closed;
+
+        private Lease(long units, Instant expiresAt) {
+            this.remaining = new AtomicLong(units);
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Units left after taking {@code quantity}, or -1 if the budget is too small.
+         */
+        long take(long quantity) {
+            while (true) {
+                long current = remaining.get();
+                if (current < quantity) {
+                    return -1;
+                }
+                if (remaining.compareAndSet(current, current - quantity)) {
+                    return current - quantity;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.Tulip_Tech.OrderService.client;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Power-of-two-choices over {@link InstanceLoadTracker#cost}: two instances are sampled and the
+ * cheaper one gets the request, which steers traffic away from slow or busy replicas without
+ * herding onto a single one. Requests carrying {@link #AFFINITY_HEADER} compare the two
+ * instances ranked highest for that key by rendezvous hashing instead, so the same product
+ * mostly lands on the same replica and its cache, with a fallback when that replica is loaded.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    public static final String AFFINITY_HEADER = "X-SC-LB-Hint";
+
+    private final String serviceId;
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final InstanceLoadTracker tracker;
+    private final boolean affinity;
+
+    public LatencyAwareLoadBalancer(String serviceId,
+                                    ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                    InstanceLoadTracker tracker,
+                                    boolean affinity) {
+        this.serviceId = serviceId;
+        this.supplierProvider = supplierProvider;
+        this.tracker = tracker;
+        this.affinity = affinity;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(() -> new NoopServiceInstanceListSupplier());
+        String affinityKey = affinity ? affinityKey(request) : null;
+        return supplier.get(request).next().map(instances -> response(select(instances, affinityKey)));
+    }
+
+    private static Response<ServiceInstance> response(ServiceInstance chosen) {
+        if (chosen == null) {
+            return new EmptyResponse();
+        }
+        return new DefaultResponse(chosen);
+    }
+
+    ServiceInstance select(List<ServiceInstance> instances, String affinityKey) {
+        if (instances.isEmpty()) {
+            return null;
+        }
+        if (instances.size() == 1) {
+            return instances.getFirst();
+        }
+
+        ServiceInstance first;
+        ServiceInstance second;
+        if (affinityKey != null) {
+            ServiceInstance[] ranked = topTwo(instances, affinityKey);
+            first = ranked[0];
+            second = ranked[1];
+        } else {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int i = random.nextInt(instances.size());
+            int j = random.nextInt(instances.size() - 1);
+            first = instances.get(i);
+            second = instances.get(j >= i ? j + 1 : j);
+        }
+        return tracker.cost(second) < tracker.cost(first) ? second : first;
+    }
+
+    private static ServiceInstance[] topTwo(List<ServiceInstance> instances, String affinityKey) {
+        ServiceInstance best = null;
+        ServiceInstance runnerUp = null;
+        long bestScore = Long.MIN_VALUE;
+        long runnerUpScore = Long.MIN_VALUE;
+        long keyHash = affinityKey.hashCode();
+        for (ServiceInstance instance : instances) {
+            long score = mix(keyHash * 31 + InstanceLoadTracker.key(instance).hashCode());
+            if (best == null || score > bestScore) {
+                runnerUp = best;
+                runnerUpScore = bestScore;
+                best = instance;
+                bestScore = score;
+            } else if (runnerUp == null || score > runnerUpScore) {
+                runnerUp = instance;
+                runnerUpScore = score;
+            }
+        }
+        return new ServiceInstance[]{best, runnerUp};
+    }
+
+    // murmur3 finalizer, spreads nearby hash codes over the whole range
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static String affinityKey(Request request) {
+        if (request.getContext() instanceof RequestDataContext context && context.getClientRequest() != null) {
+            return context.getClientRequest().getHeaders().getFirst(AFFINITY_HEADER);
+        }
+        return null;
+    }
+}
@@ -2,23 +2,52 @@ package com.Tulip_Tech.OrderService.client;
 
 import com.Tulip_Tech.OrderService.model.Dto.CreatePaymentRequest;
 import com.Tulip_Tech.OrderService.model.domain.Order;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ProblemDetail;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
-@Component
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
+@Component
 public class PaymentServiceClient {
 
+    static final String PAYMENT_SERVICE = "paymentService";
+    private static final int BULK_CHUNK_SIZE = 200;
 
     private final WebClient webClient;
+    private final int concurrency;
+    private final Duration callTimeout;
+    private final Hedger hedger;
+    // reads are composed inside this class, where the annotations' proxy never sees them
+    private final io.github.resilience4j.circuitbreaker.CircuitBreaker circuitBreaker;
+    private final io.github.resilience4j.bulkhead.Bulkhead bulkhead;
+    private final BulkLookup.BulkSupport bulkSupport = new BulkLookup.BulkSupport();
 
 
-    public PaymentServiceClient(@Qualifier("paymentWebClient") WebClient webClient) {
+    public PaymentServiceClient(@Qualifier("paymentWebClient") WebClient webClient,
+                                @Value("${payment.service.concurrency:4}") int concurrency,
+                                @Value("${payment.service.call-timeout:2s}") Duration callTimeout,
+                                @Qualifier("paymentHedger") Hedger hedger,
+                                CircuitBreakerRegistry circuitBreakerRegistry,
+                                BulkheadRegistry bulkheadRegistry) {
         this.webClient = webClient;
+        this.concurrency = concurrency;
+        this.callTimeout = callTimeout;
+        this.hedger = hedger;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(PAYMENT_SERVICE);
+        this.bulkhead = bulkheadRegistry.bulkhead(PAYMENT_SERVICE);
     }
 
 
@@ -31,7 +60,27 @@ public class PaymentServiceClient {
                 .block();
     }
 
+    @CircuitBreaker(name = PAYMENT_SERVICE)
+    @Bulkhead(name = PAYMENT_SERVICE)
+    public Mono<Void> sendPayment(CreatePaymentRequest createPaymentRequest) {
+        return webClient.post()
+                .uri("/doPayment")
+                .bodyValue(createPaymentRequest)
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(callTimeout)
+                .then();
+    }
+
     public Order.PaymentDetails getPaymentByOrderId(Long orderId) {
+        return fetchPaymentByOrderId(orderId).block();
+    }
+
+    public Mono<Order.PaymentDetails> fetchPaymentByOrderId(Long orderId) {
+        return hedger.call(() -> fetchPaymentByOrderIdOnce(orderId));
+    }
+
+    private Mono<Order.PaymentDetails> fetchPaymentByOrderIdOnce(Long orderId) {
         return webClient.get()
                 .uri("/{id}", orderId)
                 .retrieve()
@@ -42,7 +91,31 @@ public class PaymentServiceClient {
                         clientResponse.bodyToMono(String.class)
                                 .flatMap(body -> Mono.error(new RuntimeException(body))))
                 .bodyToMono(Order.PaymentDetails.class)
-                .block();
+                .timeout(callTimeout)
+                .transformDeferred(this::guarded);
+
+    }
+
+    public Map<Long, Order.PaymentDetails> getPaymentsByOrderIds(Collection<Long> orderIds) {
+        return fetchPaymentsByOrderIds(orderIds).block();
+    }
+
+    public Mono<Map<Long, Order.PaymentDetails>> fetchPaymentsByOrderIds(Collection<Long> orderIds) {
+        return BulkLookup.fetch(orderIds, BULK_CHUNK_SIZE, concurrency, bulkSupport, "payment-service",
+                this::fetchPaymentsBatch, this::fetchPaymentByOrderId, Order.PaymentDetails::getOrderId);
+    }
+
+    private Mono<List<Order.PaymentDetails>> fetchPaymentsBatch(List<Long> orderIds) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/batch").queryParam("orderIds", orderIds).build())
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<List<Order.PaymentDetails>>() {
+                })
+                .timeout(callTimeout)
+                .transformDeferred(this::guarded);
+    }
 
+    private <T> Mono<T> guarded(Mono<T> call) {
+        return DownstreamGuard.guard(call, circuitBreaker, bulkhead);
     }
 }
@@ -0,0 +1,120 @@
+package com.Tulip_Tech.OrderService.client;
+
+import com.Tulip_Tech.OrderService.model.domain.Order;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Size-bounded, TTL-based cache in front of {@link ProductServiceClient#getProductById}.
+ * Concurrent misses for one product share one load, 4xx answers are cached as empty for a
+ * shorter time, and keys read after {@code refresh-after} are reloaded in the background.
+ * Loads go through the non-blocking client calls, so no pool thread waits on product-service.
+ */
+@Component
+@Slf4j
+public class ProductDetailsCache {
+
+    private static final String CACHE_NAME = "productDetails";
+
+    private final ProductServiceClient productServiceClient;
+    private final AsyncLoadingCache<Long, Optional<Order.ProductDetails>> cache;
+
+    public ProductDetailsCache(ProductServiceClient productServiceClient,
+                               MeterRegistry meterRegistry,
+                               @Value("${product.cache.max-size:10000}") long maxSize,
+                               @Value("${product.cache.ttl:10m}") Duration ttl,
+                               @Value("${product.cache.refresh-after:2m}") Duration refreshAfter,
+                               @Value("${product.cache.negative-ttl:30s}") Duration negativeTtl) {
+        this.productServiceClient = productServiceClient;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<Long, Optional<Order.ProductDetails>>() {
+                    @Override
+                    public long expireAfterCreate(Long productId, Optional<Order.ProductDetails> details, long currentTime) {
+                        return (details.isPresent() ? ttl : negativeTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long productId, Optional<Order.ProductDetails> details, long currentTime, long currentDuration) {
+                        return expireAfterCreate(productId, details, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long productId, Optional<Order.ProductDetails> details, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .refreshAfterWrite(refreshAfter)
+                // loads never block, so maintenance can run on the calling thread instead of the common pool
+                .executor(Runnable::run)
+                .recordStats()
+                .buildAsync(new ProductLoader());
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), CACHE_NAME);
+    }
+
+    public Order.ProductDetails get(Long productId) {
+        try {
+            return cache.get(productId).join().orElse(null);
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+        }
+    }
+
+    public Mono<Map<Long, Order.ProductDetails>> getAll(Collection<Long> productIds) {
+        return Mono.fromFuture(() -> cache.getAll(productIds))
+                .map(cached -> {
+                    Map<Long, Order.ProductDetails> result = new HashMap<>(cached.size() * 2);
+                    cached.forEach((productId, details) -> details.ifPresent(found -> result.put(productId, found)));
+                    return result;
+                });
+    }
+
+    public void invalidate(Long productId) {
+        cache.synchronous().invalidate(productId);
+    }
+
+    private class ProductLoader implements AsyncCacheLoader<Long, Optional<Order.ProductDetails>> {
+
+        @Override
+        public CompletableFuture<Optional<Order.ProductDetails>> asyncLoad(Long productId, Executor executor) {
+            return productServiceClient.fetchProductById(productId)
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .onErrorResume(BulkLookup::isClientError, ex -> {
+                        log.debug("Caching miss for productId {}: {}", productId, ex.getMessage());
+                        return Mono.just(Optional.<Order.ProductDetails>empty());
+                    })
+                    .toFuture();
+        }
+
+        @Override
+        public CompletableFuture<Map<Long, Optional<Order.ProductDetails>>> asyncLoadAll(Set<? extends Long> productIds, Executor executor) {
+            return productServiceClient.fetchProductsByIds(Set.copyOf(productIds))
+                    .map(found -> {
+                        Map<Long, Optional<Order.ProductDetails>> loaded = new HashMap<>(productIds.size() * 2);
+                        productIds.forEach(productId -> loaded.put(productId, Optional.ofNullable(found.get(productId))));
+                        return loaded;
+                    })
+                    .toFuture();
+        }
+    }
+}
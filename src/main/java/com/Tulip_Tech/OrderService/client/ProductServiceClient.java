@@ -2,8 +2,19 @@ package com.Tulip_Tech.OrderService.client;
 
 
 import com.Tulip_Tech.OrderService.exception.CustomException;
+import com.Tulip_Tech.OrderService.exception.ServiceUnavailableException;
 import com.Tulip_Tech.OrderService.model.domain.Order;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ProblemDetail;
@@ -12,20 +23,53 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
-@Component
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
+@Component
+@Slf4j
 public class ProductServiceClient {
 
+    static final String PRODUCT_SERVICE = "productService";
+    private static final int BULK_CHUNK_SIZE = 100;
 
     private final WebClient webClient;
+    private final int concurrency;
+    private final Duration callTimeout;
+    private final Hedger hedger;
+    private final boolean affinity;
+    // reads are composed inside this class, where the annotations' proxy never sees them
+    private final io.github.resilience4j.circuitbreaker.CircuitBreaker circuitBreaker;
+    private final io.github.resilience4j.bulkhead.Bulkhead bulkhead;
+    private final BulkLookup.BulkSupport bulkSupport = new BulkLookup.BulkSupport();
 
-    public ProductServiceClient(@Qualifier("productWebClient") WebClient webClient) {
+    public ProductServiceClient(@Qualifier("productWebClient") WebClient webClient,
+                                @Value("${product.service.concurrency:4}") int concurrency,
+                                @Value("${product.service.call-timeout:2s}") Duration callTimeout,
+                                @Qualifier("productHedger") Hedger hedger,
+                                CircuitBreakerRegistry circuitBreakerRegistry,
+                                BulkheadRegistry bulkheadRegistry,
+                                @Value("${downstream.load-balancer.enabled:false}") boolean loadBalanced,
+                                @Value("${downstream.load-balancer.affinity:true}") boolean affinity) {
         this.webClient = webClient;
+        this.concurrency = concurrency;
+        this.callTimeout = callTimeout;
+        this.hedger = hedger;
+        this.affinity = loadBalanced && affinity;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(PRODUCT_SERVICE);
+        this.bulkhead = bulkheadRegistry.bulkhead(PRODUCT_SERVICE);
     }
 
+    @CircuitBreaker(name = PRODUCT_SERVICE, fallbackMethod = "reduceQuantityFallback")
+    @Bulkhead(name = PRODUCT_SERVICE)
     public void reduceQuantity(Long productId, long quantity) {
         webClient.put()
                 .uri("/reduceQuantity/{id}?quantity={quantity}", productId, quantity)
+                .headers(affinityHeader(productId))
                 .retrieve()
                 .onStatus(HttpStatusCode::is4xxClientError, clientResponse ->
                         clientResponse.bodyToMono(String.class)
@@ -36,12 +80,56 @@ public class ProductServiceClient {
                                 .flatMap(body -> Mono.error(new CustomException(body, HttpStatus.INTERNAL_SERVER_ERROR)))
                 )
                 .bodyToMono(ProblemDetail.class)
+                .timeout(callTimeout)
+                // block() would wrap the checked TimeoutException, which no fallback can match
+                .onErrorMap(TimeoutException.class, ex -> reduceQuantityTimedOut(productId))
+                .block();
+    }
+
+    private ServiceUnavailableException reduceQuantityTimedOut(Long productId) {
+        log.warn("reduceQuantity for productId {} timed out after {}", productId, callTimeout);
+        return new ServiceUnavailableException("Product Service is down or timed out. Inventory check failed.", HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    // only rejections and timeouts are translated; errors from product-service itself propagate
+    // unchanged. The bulkhead sits inside the circuit breaker, so its rejections arrive here as well
+    private void reduceQuantityFallback(Long productId, long quantity, CallNotPermittedException ex) {
+        log.warn("Circuit breaker open for product-service, reduceQuantity for productId {} rejected", productId);
+        throw new ServiceUnavailableException("Product Service is down or timed out. Inventory check failed.", HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private void reduceQuantityFallback(Long productId, long quantity, BulkheadFullException ex) {
+        log.warn("product-service bulkhead full, reduceQuantity for productId {} rejected", productId);
+        throw new ServiceUnavailableException("Too many calls in flight to Product Service", HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Gives stock back to product-service, e.g. the unused part of an {@link InventoryLeases} lease.
+     */
+    @CircuitBreaker(name = PRODUCT_SERVICE)
+    @Bulkhead(name = PRODUCT_SERVICE)
+    public void restoreQuantity(Long productId, long quantity) {
+        webClient.put()
+                .uri("/restoreQuantity/{id}?quantity={quantity}", productId, quantity)
+                .headers(affinityHeader(productId))
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(callTimeout)
                 .block();
     }
 
     public Order.ProductDetails getProductById(Long productId){
+        return fetchProductById(productId).block();
+    }
+
+    public Mono<Order.ProductDetails> fetchProductById(Long productId) {
+        return hedger.call(() -> fetchProductByIdOnce(productId));
+    }
+
+    private Mono<Order.ProductDetails> fetchProductByIdOnce(Long productId) {
        return webClient.get()
                 .uri("/{id}", productId)
+                .headers(affinityHeader(productId))
                 .retrieve()
                 .onStatus(HttpStatusCode::is4xxClientError, clientResponse ->
                         clientResponse.bodyToMono(String.class)
@@ -52,6 +140,39 @@ public class ProductServiceClient {
                                 .flatMap(body -> Mono.error(new CustomException(body, HttpStatus.INTERNAL_SERVER_ERROR)))
                 )
                 .bodyToMono(Order.ProductDetails.class)
-                .block();
+                .timeout(callTimeout)
+                .transformDeferred(this::guarded);
+    }
+
+    public Map<Long, Order.ProductDetails> getProductsByIds(Collection<Long> productIds) {
+        return fetchProductsByIds(productIds).block();
+    }
+
+    public Mono<Map<Long, Order.ProductDetails>> fetchProductsByIds(Collection<Long> productIds) {
+        return BulkLookup.fetch(productIds, BULK_CHUNK_SIZE, concurrency, bulkSupport, "product-service",
+                this::fetchProductsBatch, this::fetchProductById, Order.ProductDetails::getId);
+    }
+
+    private Mono<List<Order.ProductDetails>> fetchProductsBatch(List<Long> productIds) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/batch").queryParam("ids", productIds).build())
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<List<Order.ProductDetails>>() {
+                })
+                .timeout(callTimeout)
+                .transformDeferred(this::guarded);
+    }
+
+    // only LatencyAwareLoadBalancer reads the hint; without it the header would just travel to product-service
+    private Consumer<HttpHeaders> affinityHeader(Long productId) {
+        return headers -> {
+            if (affinity) {
+                headers.set(LatencyAwareLoadBalancer.AFFINITY_HEADER, String.valueOf(productId));
+            }
+        };
+    }
+
+    private <T> Mono<T> guarded(Mono<T> call) {
+        return DownstreamGuard.guard(call, circuitBreaker, bulkhead);
     }
 }
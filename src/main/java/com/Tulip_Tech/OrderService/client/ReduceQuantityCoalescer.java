@@ -0,0 +1,269 @@
+package com.Tulip_Tech.OrderService.client;
+
+import com.Tulip_Tech.OrderService.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Merges concurrent {@link ProductServiceClient#reduceQuantity} calls for the same product.
+ * Decrements arriving within {@code product.reduce.window} (or until {@code max-batch} callers
+ * have joined) go out as one PUT with the summed quantity. If product-service rejects the sum
+ * with a 4xx, the batch is halved and retried, earlier callers first, until every caller has
+ * its own answer. A zero window, the default, sends each call straight through.
+ * <p>
+ * Callers wait at most {@code wait-timeout} for their batch. A caller that gave up is answered
+ * 503; if its batch still went through afterwards, its units are given back with
+ * {@code restoreQuantity}. A failed give-back is retried a few times with a doubling backoff;
+ * units product-service rejects with a 4xx or that are still taken after the last attempt are
+ * abandoned and counted.
+ */
+@Component
+@Slf4j
+public class ReduceQuantityCoalescer {
+
+    private static final int RESTORE_ATTEMPTS = 5;
+    private static final Duration RESTORE_BACKOFF = Duration.ofSeconds(1);
+
+    private final ProductServiceClient productServiceClient;
+    private final Duration window;
+    private final int maxBatch;
+    private final Duration waitTimeout;
+    private final ConcurrentMap<Long, Batch> openBatches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer;
+    private final ExecutorService senders;
+    private final Counter calls;
+    private final DistributionSummary batchSize;
+    private final Counter abandoned;
+
+    public ReduceQuantityCoalescer(ProductServiceClient productServiceClient,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${product.reduce.window:0ms}") Duration window,
+                                   @Value("${product.reduce.max-batch:64}") int maxBatch,
+                                   @Value("${product.reduce.wait-timeout:10s}") Duration waitTimeout) {
+        this.productServiceClient = productServiceClient;
+        this.window = window;
+        this.maxBatch = maxBatch;
+        this.waitTimeout = waitTimeout;
+        this.timer = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("reduce-quantity-timer").daemon().factory());
+        // each flush blocks on the PUT, so it gets a virtual thread rather than the timer
+        this.senders = Executors.newVirtualThreadPerTaskExecutor();
+        this.calls = Counter.builder("product.reduce.calls")
+                .description("reduceQuantity calls sent to product-service")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("product.reduce.batch.size")
+                .description("Orders served by one reduceQuantity call")
+                .register(meterRegistry);
+        this.abandoned = Counter.builder("product.reduce.abandoned.units")
+                .description("Units of callers that gave up which could not be given back to product-service")
+                .register(meterRegistry);
+    }
+
+    public void reduceQuantity(Long productId, long quantity) {
+        if (window.isZero()) {
+            send(productId, quantity, 1);
+            return;
+        }
+
+        Decrement decrement = new Decrement(quantity);
+        while (true) {
+            Batch batch = openBatches.computeIfAbsent(productId, this::openBatch);
+            if (batch.add(decrement)) {
+                break;
+            }
+            // closed between lookup and add; drop it so the next turn opens a fresh one
+            openBatches.remove(productId, batch);
+        }
+
+        try {
+            decrement.result.get(waitTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            abandon(productId, decrement);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            abandon(productId, decrement);
+        }
+    }
+
+    private void abandon(Long productId, Decrement decrement) {
+        ServiceUnavailableException unavailable = new ServiceUnavailableException(
+                "Product Service did not confirm the inventory update in time", HttpStatus.SERVICE_UNAVAILABLE);
+        // losing this race means the answer arrived just now
+        if (!decrement.result.completeExceptionally(unavailable)) {
+            try {
+                decrement.result.join();
+                return;
+            } catch (CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+            }
+        }
+        log.warn("Gave up waiting for reduceQuantity of productId {} after {}", productId, waitTimeout);
+        throw unavailable;
+    }
+
+    private Batch openBatch(Long productId) {
+        Batch batch = new Batch(productId);
+        timer.schedule(() -> flush(batch), window.toNanos(), TimeUnit.NANOSECONDS);
+        return batch;
+    }
+
+    private void flush(Batch batch) {
+        List<Decrement> decrements = batch.close();
+        if (decrements != null) {
+            openBatches.remove(batch.productId, batch);
+            senders.execute(() -> apply(batch.productId, decrements));
+        }
+    }
+
+    private void apply(Long productId, List<Decrement> decrements) {
+        long total = decrements.stream().mapToLong(Decrement::quantity).sum();
+        try {
+            send(productId, total, decrements.size());
+            for (Decrement decrement : decrements) {
+                if (!decrement.result.complete(null)) {
+                    restoreAbandoned(productId, decrement.quantity());
+                }
+            }
+        } catch (RuntimeException ex) {
+            if (decrements.size() == 1 || !BulkLookup.isClientError(ex)) {
+                decrements.forEach(decrement -> decrement.result.completeExceptionally(ex));
+                return;
+            }
+            log.debug("reduceQuantity of {} for productId {} rejected, splitting {} orders", total, productId, decrements.size());
+            int half = decrements.size() / 2;
+            apply(productId, decrements.subList(0, half));
+            apply(productId, decrements.subList(half, decrements.size()));
+        }
+    }
+
+    // the caller already answered 503, so the stock taken for it must not stay taken
+    private void restoreAbandoned(Long productId, long quantity) {
+        restoreAbandoned(productId, quantity, 1);
+    }
+
+    private void restoreAbandoned(Long productId, long quantity, int attempt) {
+        try {
+            productServiceClient.restoreQuantity(productId, quantity);
+        } catch (RuntimeException ex) {
+            if (BulkLookup.isClientError(ex) || attempt >= RESTORE_ATTEMPTS) {
+                giveUp(productId, quantity, ex.getMessage());
+                return;
+            }
+            log.warn("Giving back {} units of productId {} failed, retrying: {}", quantity, productId, ex.getMessage());
+            long delay = RESTORE_BACKOFF.multipliedBy(1L << (attempt - 1)).toMillis();
+            try {
+                timer.schedule(() -> retryRestore(productId, quantity, attempt + 1), delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException rejected) {
+                giveUp(productId, quantity, "shutting down");
+            }
+        }
+    }
+
+    // the restore blocks on a PUT, so it goes back to a sender rather than running on the timer
+    private void retryRestore(Long productId, long quantity, int attempt) {
+        try {
+            senders.execute(() -> restoreAbandoned(productId, quantity, attempt));
+        } catch (RejectedExecutionException rejected) {
+            giveUp(productId, quantity, "shutting down");
+        }
+    }
+
+    private void giveUp(Long productId, long quantity, String reason) {
+        log.error("Could not give back {} units of productId {} after the caller gave up: {}", quantity, productId, reason);
+        abandoned.increment(quantity);
+    }
+
+    private void send(Long productId, long quantity, int orders) {
+        calls.increment();
+        batchSize.record(orders);
+        productServiceClient.reduceQuantity(productId, quantity);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdown();
+        senders.shutdown();
+    }
+
+    private record Decrement(long quantity, CompletableFuture<Void> result) {
+
+        Decrement(long quantity) {
+            this(quantity, new CompletableFuture<>());
+        }
+    }
+
+    private final class Batch {
+
+        private final Long productId;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final List<Decrement> decrements = new ArrayList<>();
+        private boolean closed;
+
+        private Batch(Long productId) {
+            this.productId = productId;
+        }
+
+        boolean add(Decrement decrement) {
+            List<Decrement> full = null;
+            lock.lock();
+            try {
+                if (closed) {
+                    return false;
+                }
+                decrements.add(decrement);
+                if (decrements.size() >= maxBatch) {
+                    closed = true;
+                    full = decrements;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (full != null) {
+                openBatches.remove(productId, this);
+                List<Decrement> toSend = full;
+                senders.execute(() -> apply(productId, toSend));
+            }
+            return true;
+        }
+
+        /**
+         * Closes the batch for the window timer; null when it was already sent because it filled up.
+         */
+        List<Decrement> close() {
+            lock.lock();
+            try {
+                if (closed) {
+                    return null;
+                }
+                closed = true;
+                return decrements;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.Tulip_Tech.OrderService.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * With {@code order.place.limiter.enabled}, puts an adaptive concurrency limit on
+ * {@code /order/placeOrder}. The limit, admitted requests and rejections are published as
+ * {@code order.place.concurrency.*}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "order.place.limiter.enabled", havingValue = "true")
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public GradientLimiter placeOrderLimiter(MeterRegistry meterRegistry,
+                                             @Value("${order.place.limiter.initial-limit:50}") int initialLimit,
+                                             @Value("${order.place.limiter.min-limit:10}") int minLimit,
+                                             @Value("${order.place.limiter.max-limit:1000}") int maxLimit,
+                                             @Value("${order.place.limiter.tolerance:1.5}") double tolerance) {
+        return new GradientLimiter("order.place.concurrency", initialLimit, minLimit, maxLimit, tolerance, meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> placeOrderLimitFilter(GradientLimiter placeOrderLimiter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(new ConcurrencyLimitFilter(placeOrderLimiter));
+        registration.addUrlPatterns("/order/placeOrder");
+        // after the observation filter, so shed requests still show up in http.server.requests
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,120 @@
+package com.Tulip_Tech.OrderService.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive concurrency limit in the style of Netflix's Gradient2. Each finished request feeds
+ * its latency into a short and a long exponential average. While the short average stays
+ * within {@code tolerance} of the long one the limit grows by a queue allowance of
+ * {@code sqrt(limit)}; once latency climbs the limit is scaled down by the ratio of the two,
+ * at most by half per sample. An answer that already signals overload (503/504) backs the
+ * limit off directly. Samples taken while less than half the limit is in use are skipped,
+ * they say nothing about how much more the server can take.
+ */
+public class GradientLimiter {
+
+    private static final double SHORT_WINDOW = 10;
+    private static final double LONG_WINDOW = 600;
+    private static final double SMOOTHING = 0.2;
+    private static final double OVERLOAD_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile double limit;
+    // guarded by lock
+    private double shortRtt;
+    private double longRtt;
+
+    public GradientLimiter(String name, int initialLimit, int minLimit, int maxLimit, double tolerance, MeterRegistry meterRegistry) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.rejected = Counter.builder(name + ".rejected")
+                .description("Requests shed because the concurrency limit was reached")
+                .register(meterRegistry);
+        Gauge.builder(name + ".limit", this, GradientLimiter::limit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder(name + ".inflight", inFlight, AtomicInteger::get)
+                .description("Requests currently admitted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a slot if fewer than {@link #limit()} requests are in flight. Every successful call
+     * must be paired with {@link #release}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit()) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long rttNanos, boolean overloaded) {
+        int inFlightAtEnd = inFlight.getAndDecrement();
+        sample(rttNanos, inFlightAtEnd, overloaded);
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    void sample(long rttNanos, int inFlightAtEnd, boolean overloaded) {
+        // a lock rather than synchronized: this runs on request threads, which may be virtual
+        lock.lock();
+        try {
+            update(rttNanos, inFlightAtEnd, overloaded);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(long rttNanos, int inFlightAtEnd, boolean overloaded) {
+        double current = limit;
+        if (overloaded) {
+            limit = Math.max(minLimit, current * OVERLOAD_BACKOFF);
+            return;
+        }
+        if (longRtt == 0) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+            return;
+        }
+
+        shortRtt += (rttNanos - shortRtt) * 2 / (SHORT_WINDOW + 1);
+        longRtt += (rttNanos - longRtt) * 2 / (LONG_WINDOW + 1);
+        // after a slow period the long average lags far behind; let it catch up faster
+        if (longRtt > 2 * shortRtt) {
+            longRtt *= 0.95;
+        }
+        if (inFlightAtEnd < current / 2) {
+            return;
+        }
+
+        double gradient = Math.clamp(tolerance * longRtt / shortRtt, 0.5, 1.0);
+        double target = current * gradient + Math.sqrt(current);
+        limit = Math.clamp(current * (1 - SMOOTHING) + target * SMOOTHING, minLimit, maxLimit);
+    }
+}
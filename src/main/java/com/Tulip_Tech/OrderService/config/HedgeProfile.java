@@ -0,0 +1,24 @@
+package com.Tulip_Tech.OrderService.config;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+/**
+ * Hedging settings of one downstream, bound from {@code <service>.service.hedge}.
+ */
+@Getter
+@Setter
+public class HedgeProfile {
+
+    private boolean enabled = false;
+    /** Latency percentile of recent calls after which the second attempt is sent. */
+    private double percentile = 0.95;
+    /** Lower bound for the hedge delay, so a fast dependency is not hedged on noise. */
+    private Duration minDelay = Duration.ofMillis(10);
+    /** Hedges allowed per primary call, e.g. 0.05 caps the extra load at 5%. */
+    private double budgetRatio = 0.05;
+    /** Hedges that can be sent in a burst before the budget has refilled. */
+    private int budgetBurst = 10;
+}
@@ -0,0 +1,29 @@
+package com.Tulip_Tech.OrderService.config;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+/**
+ * Connection pool and HTTP settings of one downstream, bound from
+ * {@code <service>.service.http} so each service can be tuned (or overridden from the config
+ * server) without touching the others.
+ */
+@Getter
+@Setter
+public class HttpClientProfile {
+
+    private int maxConnections = 50;
+    /** Requests allowed to wait for a free connection; -1 means unbounded. */
+    private int pendingAcquireMaxCount = 100;
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(1);
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+    private Duration evictInterval = Duration.ofSeconds(30);
+    private Duration connectTimeout = Duration.ofSeconds(1);
+    private Duration responseTimeout = Duration.ofSeconds(2);
+    private boolean keepAlive = true;
+    /** Cleartext HTTP/2 with HTTP/1.1 fallback. */
+    private boolean http2 = false;
+}
@@ -0,0 +1,51 @@
+package com.Tulip_Tech.OrderService.config;
+
+import com.Tulip_Tech.OrderService.client.InstanceLoadTracker;
+import com.Tulip_Tech.OrderService.client.LatencyAwareLoadBalancer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * With {@code downstream.load-balancer.enabled}, product and payment calls are resolved through
+ * Spring Cloud LoadBalancer using {@link LatencyAwareLoadBalancer} instead of going straight to
+ * the service address. Instances come from the discovery client, e.g.
+ * {@code spring.cloud.discovery.client.simple.instances.product-service-svc[0].uri}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "downstream.load-balancer.enabled", havingValue = "true")
+@LoadBalancerClients(defaultConfiguration = LoadBalancerConfig.LatencyAwareConfiguration.class)
+public class LoadBalancerConfig {
+
+    /**
+     * Registered in each load balancer client context, so every downstream keeps its own stats.
+     */
+    static class LatencyAwareConfiguration {
+
+        @Bean
+        public InstanceLoadTracker instanceLoadTracker(@Value("${downstream.load-balancer.decay:10s}") Duration decay,
+                                                       @Value("${downstream.load-balancer.failure-penalty:1s}") Duration failurePenalty) {
+            return new InstanceLoadTracker(decay, failurePenalty);
+        }
+
+        @Bean
+        public ReactorLoadBalancer<ServiceInstance> latencyAwareLoadBalancer(Environment environment,
+                                                                             LoadBalancerClientFactory loadBalancerClientFactory,
+                                                                             InstanceLoadTracker instanceLoadTracker,
+                                                                             @Value("${downstream.load-balancer.affinity:true}") boolean affinity) {
+            String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+            return new LatencyAwareLoadBalancer(serviceId,
+                    loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                    instanceLoadTracker, affinity);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.Tulip_Tech.OrderService.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * With {@code tracing.tail-sampling.enabled}, wraps every {@link SpanExporter} bean (Zipkin here)
+ * in a {@link TailSamplingSpanExporter}, so the keep/drop decision is made per trace once it has
+ * finished instead of up front. Head sampling ({@code management.tracing.sampling.probability})
+ * should then be 1.0, otherwise errors and slow traces can be dropped before they get here.
+ */
+@Configuration
+@ConditionalOnClass(SpanExporter.class)
+@ConditionalOnProperty(name = "tracing.tail-sampling.enabled", havingValue = "true")
+public class TailSamplingConfig {
+
+    // static, so the post processor does not pull this configuration in early
+    @Bean
+    public static BeanPostProcessor tailSamplingSpanExporterPostProcessor(Environment environment,
+                                                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof SpanExporter exporter) || bean instanceof TailSamplingSpanExporter) {
+                    return bean;
+                }
+                return new TailSamplingSpanExporter(exporter,
+                        environment.getProperty("tracing.tail-sampling.latency-threshold", Duration.class, Duration.ofMillis(500)),
+                        environment.getProperty("tracing.tail-sampling.traces-per-second", Double.class, 1.0),
+                        environment.getProperty("tracing.tail-sampling.buffer-timeout", Duration.class, Duration.ofSeconds(10)),
+                        environment.getProperty("tracing.tail-sampling.max-buffered-traces", Integer.class, 10_000),
+                        meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+            }
+        };
+    }
+}
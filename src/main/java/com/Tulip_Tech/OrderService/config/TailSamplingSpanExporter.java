@@ -0,0 +1,272 @@
+package com.Tulip_Tech.OrderService.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tail sampling in front of a real exporter. Finished spans are held per trace until the
+ * trace's local root span ends, then the whole trace is kept if any span failed or the root
+ * took at least {@code latencyThreshold}, and otherwise only if the root's endpoint still has
+ * budget in its token bucket ({@code tracesPerSecond} per endpoint). Traces whose root never
+ * shows up are decided after {@code bufferTimeout}, and spans that end after their trace was
+ * decided follow that decision. Head sampling has to record everything for this to see errors.
+ */
+public class TailSamplingSpanExporter implements SpanExporter {
+
+    private static final AttributeKey<String> URI = AttributeKey.stringKey("uri");
+    private static final AttributeKey<String> HTTP_ROUTE = AttributeKey.stringKey("http.route");
+    // set by Spring's HTTP observations; a 5xx answer does not always mark the span as failed
+    private static final AttributeKey<String> OUTCOME = AttributeKey.stringKey("outcome");
+    private static final int MAX_ENDPOINTS = 1_000;
+    private static final String OTHER_ENDPOINT = "other";
+
+    enum Decision {
+        ERROR, SLOW, SAMPLED, DROPPED;
+
+        boolean keep() {
+            return this != DROPPED;
+        }
+    }
+
+    private final SpanExporter delegate;
+    private final long latencyThresholdNanos;
+    private final double tracesPerSecond;
+    private final long bufferTimeoutNanos;
+    private final int maxBufferedTraces;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // guarded by lock; insertion order is arrival order, so the oldest trace comes first
+    private final LinkedHashMap<String, PendingTrace> pending = new LinkedHashMap<>();
+    private final LinkedHashMap<String, Boolean> decided = new LinkedHashMap<>(1024, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > maxBufferedTraces;
+        }
+    };
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<Decision, Counter> decisions = new EnumMap<>(Decision.class);
+    private final ScheduledExecutorService sweeper;
+
+    public TailSamplingSpanExporter(SpanExporter delegate, Duration latencyThreshold, double tracesPerSecond,
+                                    Duration bufferTimeout, int maxBufferedTraces, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.tracesPerSecond = tracesPerSecond;
+        this.bufferTimeoutNanos = bufferTimeout.toNanos();
+        this.maxBufferedTraces = maxBufferedTraces;
+        for (Decision decision : Decision.values()) {
+            decisions.put(decision, Counter.builder("tracing.tail.traces")
+                    .tag("decision", decision.name().toLowerCase(Locale.ROOT))
+                    .description("Traces by tail sampling decision")
+                    .register(meterRegistry));
+        }
+        Gauge.builder("tracing.tail.buffered", this, TailSamplingSpanExporter::buffered)
+                .description("Traces waiting for their root span")
+                .register(meterRegistry);
+
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("tail-sampling-sweeper").daemon().factory());
+        long period = Math.max(bufferTimeout.toMillis() / 2, 100);
+        sweeper.scheduleWithFixedDelay(this::sweep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        List<SpanData> keep = new ArrayList<>();
+        lock.lock();
+        try {
+            for (SpanData span : spans) {
+                String traceId = span.getTraceId();
+                Boolean kept = decided.get(traceId);
+                if (kept != null) {
+                    if (kept) {
+                        keep.add(span);
+                    }
+                    continue;
+                }
+
+                PendingTrace trace = pending.computeIfAbsent(traceId, id -> new PendingTrace(System.nanoTime()));
+                trace.spans.add(span);
+                if (isLocalRoot(span)) {
+                    pending.remove(traceId);
+                    decide(traceId, trace, span, keep);
+                }
+            }
+            // a full buffer decides its oldest traces early rather than growing
+            Iterator<Map.Entry<String, PendingTrace>> oldest = pending.entrySet().iterator();
+            while (pending.size() > maxBufferedTraces && oldest.hasNext()) {
+                Map.Entry<String, PendingTrace> entry = oldest.next();
+                oldest.remove();
+                decide(entry.getKey(), entry.getValue(), null, keep);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return keep.isEmpty() ? CompletableResultCode.ofSuccess() : delegate.export(keep);
+    }
+
+    void sweep() {
+        List<SpanData> keep = new ArrayList<>();
+        long expiredBefore = System.nanoTime() - bufferTimeoutNanos;
+        lock.lock();
+        try {
+            Iterator<Map.Entry<String, PendingTrace>> oldest = pending.entrySet().iterator();
+            while (oldest.hasNext()) {
+                Map.Entry<String, PendingTrace> entry = oldest.next();
+                if (entry.getValue().firstSeen - expiredBefore > 0) {
+                    break;
+                }
+                oldest.remove();
+                decide(entry.getKey(), entry.getValue(), null, keep);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!keep.isEmpty()) {
+            delegate.export(keep);
+        }
+    }
+
+    private void decide(String traceId, PendingTrace trace, SpanData root, List<SpanData> keep) {
+        Decision decision = decision(trace.spans, root);
+        decisions.get(decision).increment();
+        decided.put(traceId, decision.keep());
+        if (decision.keep()) {
+            keep.addAll(trace.spans);
+        }
+    }
+
+    private Decision decision(List<SpanData> spans, SpanData root) {
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        for (SpanData span : spans) {
+            if (span.getStatus().getStatusCode() == StatusCode.ERROR || "SERVER_ERROR".equals(span.getAttributes().get(OUTCOME))) {
+                return Decision.ERROR;
+            }
+            start = Math.min(start, span.getStartEpochNanos());
+            end = Math.max(end, span.getEndEpochNanos());
+        }
+        long duration = root != null ? root.getEndEpochNanos() - root.getStartEpochNanos() : end - start;
+        if (duration >= latencyThresholdNanos) {
+            return Decision.SLOW;
+        }
+        return bucket(endpoint(root != null ? root : spans.getFirst())).tryTake() ? Decision.SAMPLED : Decision.DROPPED;
+    }
+
+    private TokenBucket bucket(String endpoint) {
+        TokenBucket bucket = buckets.get(endpoint);
+        if (bucket != null) {
+            return bucket;
+        }
+        String key = buckets.size() < MAX_ENDPOINTS ? endpoint : OTHER_ENDPOINT;
+        return buckets.computeIfAbsent(key, ignored -> new TokenBucket(tracesPerSecond));
+    }
+
+    private static String endpoint(SpanData span) {
+        String uri = span.getAttributes().get(URI);
+        if (uri == null) {
+            uri = span.getAttributes().get(HTTP_ROUTE);
+        }
+        return uri != null ? uri : span.getName();
+    }
+
+    private static boolean isLocalRoot(SpanData span) {
+        SpanContext parent = span.getParentSpanContext();
+        return !parent.isValid() || parent.isRemote();
+    }
+
+    int buffered() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return delegate.flush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        sweeper.shutdownNow();
+        // whatever is still waiting for a root is decided now
+        List<SpanData> keep = new ArrayList<>();
+        lock.lock();
+        try {
+            pending.forEach((traceId, trace) -> decide(traceId, trace, null, keep));
+            pending.clear();
+        } finally {
+            lock.unlock();
+        }
+        if (!keep.isEmpty()) {
+            delegate.export(keep).join(10, TimeUnit.SECONDS);
+        }
+        return delegate.shutdown();
+    }
+
+    private static final class PendingTrace {
+
+        private final long firstSeen;
+        private final List<SpanData> spans = new ArrayList<>(4);
+
+        private PendingTrace(long firstSeen) {
+            this.firstSeen = firstSeen;
+        }
+    }
+
+    private static final class TokenBucket {
+
+        private final double ratePerNano;
+        private final double capacity;
+        private final ReentrantLock lock = new ReentrantLock();
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        private TokenBucket(double perSecond) {
+            this.ratePerNano = perSecond / 1_000_000_000d;
+            this.capacity = Math.max(1, perSecond);
+            this.tokens = capacity;
+        }
+
+        boolean tryTake() {
+            lock.lock();
+            try {
+                long now = System.nanoTime();
+                tokens = Math.min(capacity, tokens + (now - refilledAt) * ratePerNano);
+                refilledAt = now;
+                if (tokens < 1) {
+                    return false;
+                }
+                tokens--;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
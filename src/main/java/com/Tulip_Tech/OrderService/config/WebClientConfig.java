@@ -1,39 +1,155 @@
 package com.Tulip_Tech.OrderService.config;
 
 
+import com.Tulip_Tech.OrderService.client.Hedger;
 import com.Tulip_Tech.OrderService.exception.CustomException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.util.Map;
+import java.util.regex.Pattern;
 
+/**
+ * One WebClient per downstream, each on its own connection pool, so a slow payment-service
+ * can only use up its own connections. Pool and HTTP settings come from
+ * {@code product.service.http} and {@code payment.service.http}; pool and client meters are
+ * published under {@code reactor.netty.*}. With {@code downstream.load-balancer.enabled} the
+ * service host is resolved per request by {@link LoadBalancerConfig}.
+ */
 @Configuration
 
 
 public class WebClientConfig {
 
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+");
+
     @Value("${product.service.url}")
     private String productServiceUrl;
 
     @Value("${payment.service.url}")
     private String paymentServiceUrl;
 
+    @Value("${downstream.load-balancer.enabled:false}")
+    private boolean loadBalanced;
+
+    @Bean
+    @ConfigurationProperties("product.service.http")
+    public HttpClientProfile productHttpProfile() {
+        return new HttpClientProfile();
+    }
+
+    @Bean
+    @ConfigurationProperties("payment.service.http")
+    public HttpClientProfile paymentHttpProfile() {
+        return new HttpClientProfile();
+    }
+
+    @Bean
+    @ConfigurationProperties("product.service.hedge")
+    public HedgeProfile productHedgeProfile() {
+        return new HedgeProfile();
+    }
+
+    @Bean
+    @ConfigurationProperties("payment.service.hedge")
+    public HedgeProfile paymentHedgeProfile() {
+        return new HedgeProfile();
+    }
+
+    @Bean
+    public Hedger productHedger(@Qualifier("productHedgeProfile") HedgeProfile profile, MeterRegistry meterRegistry) {
+        return new Hedger("product-service", profile, meterRegistry);
+    }
+
+    @Bean
+    public Hedger paymentHedger(@Qualifier("paymentHedgeProfile") HedgeProfile profile, MeterRegistry meterRegistry) {
+        return new Hedger("payment-service", profile, meterRegistry);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider productConnectionProvider(@Qualifier("productHttpProfile") HttpClientProfile profile) {
+        return connectionProvider("product-service", profile);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider paymentConnectionProvider(@Qualifier("paymentHttpProfile") HttpClientProfile profile) {
+        return connectionProvider("payment-service", profile);
+    }
+
     @Bean
-    public WebClient productWebClient(WebClient.Builder builder) {
-        return builder.baseUrl(productServiceUrl).filter(errorDecoderFilter()).build();
+    public WebClient productWebClient(WebClient.Builder builder,
+                                      @Qualifier("productConnectionProvider") ConnectionProvider connectionProvider,
+                                      @Qualifier("productHttpProfile") HttpClientProfile profile,
+                                      ObjectProvider<ReactorLoadBalancerExchangeFilterFunction> loadBalancerFilter) {
+        return withLoadBalancer(builder.baseUrl(productServiceUrl), loadBalancerFilter)
+                .clientConnector(new ReactorClientHttpConnector(httpClient(connectionProvider, profile)))
+                .filter(errorDecoderFilter())
+                .build();
     }
 
     @Bean
-    public WebClient paymentWebClient(WebClient.Builder builder) {
-        return builder.baseUrl(paymentServiceUrl).filter(errorDecoderFilter()).build();
+    public WebClient paymentWebClient(WebClient.Builder builder,
+                                      @Qualifier("paymentConnectionProvider") ConnectionProvider connectionProvider,
+                                      @Qualifier("paymentHttpProfile") HttpClientProfile profile,
+                                      ObjectProvider<ReactorLoadBalancerExchangeFilterFunction> loadBalancerFilter) {
+        return withLoadBalancer(builder.baseUrl(paymentServiceUrl), loadBalancerFilter)
+                .clientConnector(new ReactorClientHttpConnector(httpClient(connectionProvider, profile)))
+                .filter(errorDecoderFilter())
+                .build();
+    }
+
+    private WebClient.Builder withLoadBalancer(WebClient.Builder builder,
+                                               ObjectProvider<ReactorLoadBalancerExchangeFilterFunction> loadBalancerFilter) {
+        return loadBalanced ? builder.filter(loadBalancerFilter.getObject()) : builder;
+    }
+
+    static ConnectionProvider connectionProvider(String name, HttpClientProfile profile) {
+        return ConnectionProvider.builder(name)
+                .maxConnections(profile.getMaxConnections())
+                .pendingAcquireMaxCount(profile.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(profile.getPendingAcquireTimeout())
+                .maxIdleTime(profile.getMaxIdleTime())
+                .maxLifeTime(profile.getMaxLifeTime())
+                .evictInBackground(profile.getEvictInterval())
+                .metrics(true)
+                .build();
+    }
+
+    static HttpClient httpClient(ConnectionProvider connectionProvider, HttpClientProfile profile) {
+        return HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(profile.getConnectTimeout().toMillis()))
+                .option(ChannelOption.SO_KEEPALIVE, profile.isKeepAlive())
+                .keepAlive(profile.isKeepAlive())
+                .responseTimeout(profile.getResponseTimeout())
+                .protocol(profile.isHttp2() ? new HttpProtocol[]{HttpProtocol.H2C, HttpProtocol.HTTP11} : new HttpProtocol[]{HttpProtocol.HTTP11})
+                // ids in paths would give every order and product its own meter
+                .metrics(true, WebClientConfig::uriTemplate);
+    }
+
+    static String uriTemplate(String uri) {
+        int query = uri.indexOf('?');
+        return ID_SEGMENT.matcher(query < 0 ? uri : uri.substring(0, query)).replaceAll("/{id}");
     }
 
-    private ExchangeFilterFunction errorDecoderFilter() {
+    /**
+     * Turns an error response into a {@link CustomException} carrying the decoded body.
+     */
+    static ExchangeFilterFunction errorDecoderFilter() {
         return ExchangeFilterFunction.ofResponseProcessor(clientResponse -> {
             if (clientResponse.statusCode().isError()) {
                 return clientResponse.bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {
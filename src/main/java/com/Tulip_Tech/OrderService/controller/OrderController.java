@@ -1,13 +1,32 @@
 package com.Tulip_Tech.OrderService.controller;
 
 import com.Tulip_Tech.OrderService.model.Dto.CreateOrderRequest;
+import com.Tulip_Tech.OrderService.model.Dto.CursorPage;
+import com.Tulip_Tech.OrderService.model.Dto.OrderSearchCriteria;
+import com.Tulip_Tech.OrderService.model.Dto.OrderSearchPage;
+import com.Tulip_Tech.OrderService.model.Dto.OrderStats;
+import com.Tulip_Tech.OrderService.model.Payment_Mode;
 import com.Tulip_Tech.OrderService.model.domain.Order;
+import com.Tulip_Tech.OrderService.service.IdempotencyStore;
+import com.Tulip_Tech.OrderService.service.OrderExporter;
 import com.Tulip_Tech.OrderService.service.OrderService;
+import com.Tulip_Tech.OrderService.service.OrderStatsAggregator;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @RestController
@@ -16,12 +35,37 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OrderController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+    private final OrderExporter orderExporter;
+    private final OrderStatsAggregator orderStatsAggregator;
+    private final IdempotencyStore idempotencyStore;
 
 
     @PostMapping("/placeOrder")
-    public ResponseEntity<?> placeOrder(@RequestBody CreateOrderRequest createOrderRequest) {
-        return orderService.placeOrder(createOrderRequest);
+    public ResponseEntity<?> placeOrder(@RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+                                        @RequestBody CreateOrderRequest createOrderRequest) {
+        if (idempotencyKey == null) {
+            return orderService.placeOrder(createOrderRequest);
+        }
+        return idempotencyStore.execute(idempotencyKey, createOrderRequest, () -> orderService.placeOrder(createOrderRequest));
+    }
+
+    @PostMapping("/placeOrders")
+    public ResponseEntity<?> placeOrders(@RequestBody List<CreateOrderRequest> createOrderRequests) {
+        return orderService.placeOrders(createOrderRequests);
+    }
+
+    @PostMapping("/placeOrderAsync")
+    public ResponseEntity<?> placeOrderAsync(@RequestBody CreateOrderRequest createOrderRequest) {
+        return orderService.placeOrderAsync(createOrderRequest);
+    }
+
+    @GetMapping("/{orderId}/status")
+    public ResponseEntity<?> getOrderStatus(@PathVariable Long orderId) {
+        return orderService.getOrderStatus(orderId);
     }
 
     @GetMapping("/check")
@@ -29,9 +73,89 @@ public class OrderController {
         return "Order Service is up and running";
     }
 
+    /**
+     * Still a plain array of orders, but at most {@code size} of them (200 at most) after
+     * {@code cursor}; the cursor for the next call is sent in the {@value #NEXT_CURSOR_HEADER}
+     * header while more orders follow.
+     */
     @GetMapping
-    public List<Order> getOrders(){
-        return orderService.getAll();
+    public ResponseEntity<List<Order>> getOrders(@RequestParam(required = false) Long cursor,
+                                                 @RequestParam(defaultValue = "50") int size,
+                                                 @RequestParam(defaultValue = "false") boolean live){
+        CursorPage<Order> page = orderService.getPage(cursor, size, live);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor().toString());
+        }
+        return response.body(page.items());
+    }
+
+    @GetMapping("/page")
+    public CursorPage<Order> getOrderPage(@RequestParam(required = false) Long cursor,
+                                          @RequestParam(defaultValue = "50") int size,
+                                          @RequestParam(defaultValue = "false") boolean live){
+        return orderService.getPage(cursor, size, live);
+    }
+
+    @GetMapping("/search")
+    public OrderSearchPage searchOrders(@RequestParam(required = false) String status,
+                                        @RequestParam(required = false) Long productId,
+                                        @RequestParam(required = false) Payment_Mode paymentMode,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant afterDate,
+                                        @RequestParam(required = false) Long afterId,
+                                        @RequestParam(defaultValue = "50") int size){
+        return orderService.search(new OrderSearchCriteria(status, productId, paymentMode, from, to, afterDate, afterId), size);
+    }
+
+    /**
+     * Hourly revenue and volume from the running aggregates; {@code source=scan} reads
+     * {@code orders_tbl} instead and should only be used to cross-check them.
+     */
+    @GetMapping("/stats")
+    public OrderStats getStats(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                               @RequestParam(defaultValue = "memory") String source){
+        Instant end = to == null ? Instant.now() : to;
+        Instant start = from == null ? end.minus(24, ChronoUnit.HOURS) : from;
+        return "scan".equalsIgnoreCase(source) ? orderStatsAggregator.scan(start, end) : orderStatsAggregator.stats(start, end);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(defaultValue = "ndjson") String format,
+                                                              @RequestParam(defaultValue = "false") boolean gzip,
+                                                              @RequestParam(required = false) Long after){
+        OrderExporter.Format exportFormat = OrderExporter.Format.of(format);
+        StreamingResponseBody body = outputStream -> orderExporter.export(exportFormat, after, gzip, outputStream);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("orders." + exportFormat.extension() + (gzip ? ".gz" : "")).build().toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamOrders(@RequestParam(required = false) Long cursor,
+                                                              @RequestParam(defaultValue = "false") boolean live){
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                orderService.streamOrders(cursor, live, order -> {
+                    try {
+                        generator.writeObject(order);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
 }
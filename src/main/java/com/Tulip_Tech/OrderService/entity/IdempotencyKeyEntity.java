@@ -0,0 +1,36 @@
+package com.Tulip_Tech.OrderService.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Outcome of a request sent with an {@code Idempotency-Key}. {@code status} is null while the
+ * request is still being processed. Read and written by {@code IdempotencyStore} with plain
+ * JDBC so that claiming a key is a single insert.
+ */
+@Entity
+@Getter
+@Table(name = "idempotency_key_tbl", indexes = @Index(name = "idx_idempotency_key_created", columnList = "created_at"))
+@AllArgsConstructor
+@NoArgsConstructor
+
+public class IdempotencyKeyEntity {
+
+    @Id
+    @Column(name = "idempotency_key", length = 128)
+    private String idempotencyKey;
+
+    @Column(name = "request_hash", length = 64, nullable = false)
+    private String requestHash;
+
+    @Column(name = "status")
+    private Integer status;
+
+    @Column(name = "body", length = 4000)
+    private String body;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -8,15 +8,23 @@ import java.time.Instant;
 
 @Entity
 @Getter
-@Table(name= "orders_tbl")
+// InnoDB appends order_id to each index, which matches the (order_date, order_id) search order
+@Table(name= "orders_tbl", indexes = {
+        @Index(name = "idx_orders_status_date", columnList = "order_status, order_date"),
+        @Index(name = "idx_orders_product_date", columnList = "product_id, order_date"),
+        @Index(name = "idx_orders_payment_mode_date", columnList = "payment_mode, order_date"),
+        @Index(name = "idx_orders_date", columnList = "order_date")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 
 public class OrderEntity {
 
+    // pooled: one round trip on the existing orders_tbl_SEQ hands out 50 ids, so batched inserts need no per-row lookup
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_id_seq")
+    @SequenceGenerator(name = "order_id_seq", sequenceName = "orders_tbl_SEQ", allocationSize = 50)
     @Column(name = "order_id")
     private Long orderId;
 
@@ -44,4 +52,16 @@ public class OrderEntity {
     @Enumerated(EnumType.STRING)
     @Column(name = "payment_mode")
     private Payment_Mode payment_mode;
+
+    @Setter
+    @Embedded
+    private OrderSnapshot snapshot;
+
+    // Hibernate loads an all-null embeddable as null
+    public OrderSnapshot snapshot() {
+        if (snapshot == null) {
+            snapshot = new OrderSnapshot();
+        }
+        return snapshot;
+    }
 }
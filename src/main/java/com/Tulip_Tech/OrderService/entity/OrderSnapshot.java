@@ -0,0 +1,42 @@
+package com.Tulip_Tech.OrderService.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Product and payment facts copied onto the order row, so listings can be served from
+ * {@code orders_tbl} alone. Product fields are taken when the order is placed, payment
+ * fields when the outbox delivers or gives up on the payment.
+ */
+@Embeddable
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderSnapshot {
+
+    public static final String PAYMENT_PENDING = "PENDING";
+    public static final String PAYMENT_SUCCESS = "SUCCESS";
+    public static final String PAYMENT_FAILED = "FAILED";
+
+    @Column(name = "product_name")
+    private String productName;
+
+    @Column(name = "product_price")
+    private Long productPrice;
+
+    @Column(name = "payment_id")
+    private Long paymentId;
+
+    @Column(name = "payment_reference")
+    private String paymentReference;
+
+    @Column(name = "payment_status")
+    private String paymentStatus;
+
+    @Column(name = "payment_date")
+    private Instant paymentDate;
+}
@@ -0,0 +1,28 @@
+package com.Tulip_Tech.OrderService.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Single row recording up to which hour {@code order_stats_tbl} is complete.
+ */
+@Entity
+@Getter
+@Table(name = "order_stats_checkpoint_tbl")
+@AllArgsConstructor
+@NoArgsConstructor
+
+public class OrderStatsCheckpointEntity {
+
+    public static final long ID = 1L;
+
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    @Setter
+    @Column(name = "closed_until")
+    private Instant closedUntil;
+}
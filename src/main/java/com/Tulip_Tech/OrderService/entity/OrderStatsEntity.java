@@ -0,0 +1,31 @@
+package com.Tulip_Tech.OrderService.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Checkpointed totals of one closed hour for one product or payment mode.
+ */
+@Entity
+@Getter
+@Table(name = "order_stats_tbl")
+@AllArgsConstructor
+@NoArgsConstructor
+
+public class OrderStatsEntity {
+
+    public static final String PRODUCT = "product";
+    public static final String PAYMENT_MODE = "paymentMode";
+
+    @EmbeddedId
+    private OrderStatsKey key;
+
+    @Column(name = "orders")
+    private long orders;
+
+    @Column(name = "quantity")
+    private long quantity;
+
+    @Column(name = "revenue")
+    private long revenue;
+}
@@ -0,0 +1,25 @@
+package com.Tulip_Tech.OrderService.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+@Embeddable
+@Getter
+@EqualsAndHashCode
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderStatsKey implements Serializable {
+
+    @Column(name = "bucket_hour")
+    private Instant bucketHour;
+
+    @Column(name = "dimension")
+    private String dimension;
+
+    @Column(name = "dimension_key")
+    private String dimensionKey;
+}
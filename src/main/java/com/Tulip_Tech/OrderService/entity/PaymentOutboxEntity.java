@@ -0,0 +1,59 @@
+package com.Tulip_Tech.OrderService.entity;
+
+import com.Tulip_Tech.OrderService.model.Payment_Mode;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Getter
+@Table(name = "payment_outbox_tbl", indexes = @Index(name = "idx_payment_outbox_status_next", columnList = "status, next_attempt_at"))
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+
+public class PaymentOutboxEntity {
+
+    public static final String PENDING = "PENDING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_outbox_id_seq")
+    @SequenceGenerator(name = "payment_outbox_id_seq", sequenceName = "payment_outbox_tbl_SEQ", allocationSize = 50)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "amount")
+    private Long amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_mode")
+    private Payment_Mode paymentMode;
+
+    @Column(name = "reference_number")
+    private String referenceNumber;
+
+    @Setter
+    @Column(name = "status")
+    private String status;
+
+    @Setter
+    @Column(name = "attempts")
+    private int attempts;
+
+    @Setter
+    @Column(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    @Setter
+    @Column(name = "last_error")
+    private String lastError;
+}
@@ -1,27 +1,50 @@
 package com.Tulip_Tech.OrderService.mapper;
 
 import com.Tulip_Tech.OrderService.entity.OrderEntity;
+import com.Tulip_Tech.OrderService.entity.OrderSnapshot;
 import com.Tulip_Tech.OrderService.model.Dto.CreateOrderRequest;
+import com.Tulip_Tech.OrderService.model.OrderStatus;
 import com.Tulip_Tech.OrderService.model.domain.Order;
-import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+
+/**
+ * Plain field-by-field copies, no reflection. {@code OrderMapperTest} fails when a field is
+ * added to one side of a pair and not mapped.
+ */
 @Component
 public class OrderMapper {
 
 
 
     public Order EntityToOrder(OrderEntity orderEntity) {
-        Order order = new Order();
-        BeanUtils.copyProperties(orderEntity, order);
-        return order;
+        Order.ProductDetails productDetails = null;
+        Order.PaymentDetails paymentDetails = null;
+        OrderSnapshot snapshot = orderEntity.getSnapshot();
+        if (snapshot != null && snapshot.getProductName() != null) {
+            // the snapshot keeps what was sold, not the current stock, so quantity stays 0
+            productDetails = new Order.ProductDetails(orderEntity.getProductId(), snapshot.getProductName(),
+                    snapshot.getProductPrice() == null ? 0L : snapshot.getProductPrice(), 0L);
+        }
+        if (snapshot != null && snapshot.getPaymentStatus() != null) {
+            paymentDetails = new Order.PaymentDetails(snapshot.getPaymentId(), orderEntity.getOrderId(),
+                    orderEntity.getPayment_mode(), snapshot.getPaymentReference(), snapshot.getPaymentDate(),
+                    snapshot.getPaymentStatus(), orderEntity.getTotalAmount());
+        }
+        return new Order(orderEntity.getOrderId(), orderEntity.getProductId(), orderEntity.getQuantity(),
+                orderEntity.getOrderDate(), orderEntity.getTotalAmount(), orderEntity.getPayment_mode(),
+                productDetails, paymentDetails);
     }
 
     public OrderEntity createOrderEntity(CreateOrderRequest createOrderRequest) {
         OrderEntity orderEntity = new OrderEntity();
-        BeanUtils.copyProperties(createOrderRequest, orderEntity);
-        orderEntity.setOrderStatus("CREATED");
-        orderEntity.setOrderDate(java.time.Instant.now());
+        orderEntity.setProductId(createOrderRequest.productId());
+        orderEntity.setQuantity(createOrderRequest.quantity());
+        orderEntity.setTotalAmount(createOrderRequest.totalAmount());
+        orderEntity.setPayment_mode(createOrderRequest.payment_mode());
+        orderEntity.setOrderStatus(OrderStatus.CREATED.name());
+        orderEntity.setOrderDate(Instant.now());
         return orderEntity;
     }
 
@@ -0,0 +1,12 @@
+package com.Tulip_Tech.OrderService.model.Dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is the last id of this page,
+ * or {@code null} when there are no more rows to read.
+ */
+public record CursorPage<T>(List<T> items,
+                            Long nextCursor
+) {
+}
@@ -0,0 +1,21 @@
+package com.Tulip_Tech.OrderService.model.Dto;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Outcome of one item of a bulk placement, {@code index} being its position in the request.
+ */
+public record OrderPlacementResult(int index, Long orderId, int status, String error) {
+
+    public static OrderPlacementResult placed(int index, Long orderId) {
+        return new OrderPlacementResult(index, orderId, HttpStatus.OK.value(), null);
+    }
+
+    public static OrderPlacementResult failed(int index, HttpStatus status, String error) {
+        return new OrderPlacementResult(index, null, status.value(), error);
+    }
+
+    public boolean isPlaced() {
+        return orderId != null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.Tulip_Tech.OrderService.model.Dto;
+
+import com.Tulip_Tech.OrderService.model.Payment_Mode;
+
+import java.time.Instant;
+
+/**
+ * Filters of {@code GET /order/search}; null fields are not applied. {@code from} is inclusive,
+ * {@code to} exclusive. {@code afterDate}/{@code afterId} is the keyset cursor of the previous page.
+ */
+public record OrderSearchCriteria(String status,
+                                  Long productId,
+                                  Payment_Mode paymentMode,
+                                  Instant from,
+                                  Instant to,
+                                  Instant afterDate,
+                                  Long afterId
+) {
+}
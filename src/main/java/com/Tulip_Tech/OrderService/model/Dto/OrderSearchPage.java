@@ -0,0 +1,11 @@
+package com.Tulip_Tech.OrderService.model.Dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A page of search results ordered by order date then id. Pass {@code nextAfterDate} and
+ * {@code nextAfterId} back as {@code afterDate}/{@code afterId}; both are null on the last page.
+ */
+public record OrderSearchPage(List<OrderSummary> items, Instant nextAfterDate, Long nextAfterId) {
+}
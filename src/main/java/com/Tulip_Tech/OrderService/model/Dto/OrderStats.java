@@ -0,0 +1,20 @@
+package com.Tulip_Tech.OrderService.model.Dto;
+
+import com.Tulip_Tech.OrderService.model.Payment_Mode;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Placed-order volume and revenue for the hours in {@code [from, to)}. {@code source} is
+ * {@code memory} for the running aggregates and {@code scan} when the table was read.
+ */
+public record OrderStats(Instant from,
+                         Instant to,
+                         String source,
+                         StatTotals total,
+                         Map<Long, StatTotals> byProduct,
+                         Map<Payment_Mode, StatTotals> byPaymentMode,
+                         Map<Instant, StatTotals> byHour
+) {
+}
@@ -0,0 +1,6 @@
+package com.Tulip_Tech.OrderService.model.Dto;
+
+public record OrderStatusResponse(Long orderId,
+                                  String orderStatus
+) {
+}
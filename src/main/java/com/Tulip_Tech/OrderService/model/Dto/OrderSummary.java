@@ -0,0 +1,19 @@
+package com.Tulip_Tech.OrderService.model.Dto;
+
+import com.Tulip_Tech.OrderService.model.Payment_Mode;
+
+import java.time.Instant;
+
+/**
+ * Columns a dashboard needs from {@code orders_tbl}, selected directly into this record so no
+ * entity is managed or dirty-checked.
+ */
+public record OrderSummary(Long orderId,
+                           Long productId,
+                           Long quantity,
+                           String orderStatus,
+                           Instant orderDate,
+                           Long totalAmount,
+                           Payment_Mode paymentMode
+) {
+}
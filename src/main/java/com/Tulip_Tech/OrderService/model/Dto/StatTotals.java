@@ -0,0 +1,10 @@
+package com.Tulip_Tech.OrderService.model.Dto;
+
+public record StatTotals(long orders, long quantity, long revenue) {
+
+    public static final StatTotals ZERO = new StatTotals(0, 0, 0);
+
+    public StatTotals plus(StatTotals other) {
+        return new StatTotals(orders + other.orders, quantity + other.quantity, revenue + other.revenue);
+    }
+}
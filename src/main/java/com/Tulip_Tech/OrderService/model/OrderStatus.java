@@ -0,0 +1,6 @@
+package com.Tulip_Tech.OrderService.model;
+
+public enum OrderStatus {
+
+    PENDING, CREATED, FAILED
+}
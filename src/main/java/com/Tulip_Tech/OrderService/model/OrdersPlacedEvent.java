@@ -0,0 +1,12 @@
+package com.Tulip_Tech.OrderService.model;
+
+import com.Tulip_Tech.OrderService.entity.OrderEntity;
+
+import java.util.List;
+
+/**
+ * Published by {@code OrderWriter} inside the transaction that stores the orders; listeners
+ * bound to the commit only see orders that were actually saved.
+ */
+public record OrdersPlacedEvent(List<OrderEntity> orders) {
+}
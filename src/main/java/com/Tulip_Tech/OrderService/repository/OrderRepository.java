@@ -1,10 +1,35 @@
 package com.Tulip_Tech.OrderService.repository;
 
 import com.Tulip_Tech.OrderService.entity.OrderEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
-public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
+public interface OrderRepository extends JpaRepository<OrderEntity, Long>, OrderSearchRepository {
+
+    List<OrderEntity> findByOrderIdGreaterThanOrderByOrderIdAsc(Long orderId, Limit limit);
+
+    // forward-only cursor, needs useCursorFetch=true on the MySQL url for the fetch size to apply
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select o from OrderEntity o where o.orderId > :cursor order by o.orderId")
+    Stream<OrderEntity> streamByOrderIdGreaterThan(@Param("cursor") Long cursor);
+
+    // rows claimed by another instance's recovery are skipped instead of waited on
+    @Query(value = "select * from orders_tbl where order_status = 'PENDING' and order_date < :staleBefore "
+            + "order by order_date limit :limit for update skip locked", nativeQuery = true)
+    List<OrderEntity> lockStalePending(@Param("staleBefore") Instant staleBefore, @Param("limit") int limit);
 
 }
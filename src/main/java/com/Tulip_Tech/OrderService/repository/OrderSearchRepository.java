@@ -0,0 +1,11 @@
+package com.Tulip_Tech.OrderService.repository;
+
+import com.Tulip_Tech.OrderService.model.Dto.OrderSearchCriteria;
+import com.Tulip_Tech.OrderService.model.Dto.OrderSummary;
+
+import java.util.List;
+
+public interface OrderSearchRepository {
+
+    List<OrderSummary> search(OrderSearchCriteria criteria, int limit);
+}
@@ -0,0 +1,61 @@
+package com.Tulip_Tech.OrderService.repository;
+
+import com.Tulip_Tech.OrderService.model.Dto.OrderSearchCriteria;
+import com.Tulip_Tech.OrderService.model.Dto.OrderSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the search JPQL from the filters that are set, so each shape of request gets a plain
+ * equality-then-range predicate that one of the {@code orders_tbl} composite indexes covers.
+ */
+@RequiredArgsConstructor
+public class OrderSearchRepositoryImpl implements OrderSearchRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<OrderSummary> search(OrderSearchCriteria criteria, int limit) {
+        StringBuilder jpql = new StringBuilder("select new com.Tulip_Tech.OrderService.model.Dto.OrderSummary("
+                + "o.orderId, o.productId, o.quantity, o.orderStatus, o.orderDate, o.totalAmount, o.payment_mode) "
+                + "from OrderEntity o where 1 = 1");
+        Map<String, Object> parameters = new HashMap<>();
+
+        if (criteria.status() != null) {
+            jpql.append(" and o.orderStatus = :status");
+            parameters.put("status", criteria.status());
+        }
+        if (criteria.productId() != null) {
+            jpql.append(" and o.productId = :productId");
+            parameters.put("productId", criteria.productId());
+        }
+        if (criteria.paymentMode() != null) {
+            jpql.append(" and o.payment_mode = :paymentMode");
+            parameters.put("paymentMode", criteria.paymentMode());
+        }
+        if (criteria.from() != null) {
+            jpql.append(" and o.orderDate >= :from");
+            parameters.put("from", criteria.from());
+        }
+        if (criteria.to() != null) {
+            jpql.append(" and o.orderDate < :to");
+            parameters.put("to", criteria.to());
+        }
+        if (criteria.afterDate() != null && criteria.afterId() != null) {
+            // the leading >= gives MySQL an index range; the OR only trims the rows sharing afterDate
+            jpql.append(" and o.orderDate >= :afterDate and (o.orderDate > :afterDate or o.orderId > :afterId)");
+            parameters.put("afterDate", criteria.afterDate());
+            parameters.put("afterId", criteria.afterId());
+        }
+        jpql.append(" order by o.orderDate, o.orderId");
+
+        TypedQuery<OrderSummary> query = entityManager.createQuery(jpql.toString(), OrderSummary.class);
+        parameters.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
@@ -0,0 +1,21 @@
+package com.Tulip_Tech.OrderService.repository;
+
+import com.Tulip_Tech.OrderService.entity.OrderStatsCheckpointEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OrderStatsCheckpointRepository extends JpaRepository<OrderStatsCheckpointEntity, Long> {
+
+    // only one instance advances the checkpoint at a time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from OrderStatsCheckpointEntity c where c.id = :id")
+    Optional<OrderStatsCheckpointEntity> lockById(@Param("id") Long id);
+
+}
@@ -0,0 +1,18 @@
+package com.Tulip_Tech.OrderService.repository;
+
+import com.Tulip_Tech.OrderService.entity.OrderStatsEntity;
+import com.Tulip_Tech.OrderService.entity.OrderStatsKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface OrderStatsRepository extends JpaRepository<OrderStatsEntity, OrderStatsKey> {
+
+    @Query("select s from OrderStatsEntity s where s.key.bucketHour >= :from and s.key.bucketHour < :to")
+    List<OrderStatsEntity> findHours(@Param("from") Instant from, @Param("to") Instant to);
+}
@@ -0,0 +1,26 @@
+package com.Tulip_Tech.OrderService.repository;
+
+import com.Tulip_Tech.OrderService.entity.PaymentOutboxEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PaymentOutboxRepository extends JpaRepository<PaymentOutboxEntity, Long> {
+
+    // rows locked by another dispatcher instance are skipped instead of waited on
+    @Query(value = "select * from payment_outbox_tbl where status = 'PENDING' and next_attempt_at <= :now "
+            + "order by next_attempt_at limit :limit for update skip locked", nativeQuery = true)
+    List<PaymentOutboxEntity> lockDue(@Param("now") Instant now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("update PaymentOutboxEntity o set o.status = 'DONE', o.lastError = null where o.id in :ids")
+    int markDone(@Param("ids") Collection<Long> ids);
+
+}
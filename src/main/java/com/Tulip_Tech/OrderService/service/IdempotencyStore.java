@@ -0,0 +1,264 @@
+package com.Tulip_Tech.OrderService.service;
+
+import com.Tulip_Tech.OrderService.entity.IdempotencyKeyEntity;
+import com.Tulip_Tech.OrderService.exception.CustomException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates requests carrying an {@code Idempotency-Key}. The first request for a key puts
+ * a future into a bounded Caffeine map and claims the key in {@link IdempotencyKeyEntity}'s
+ * table; duplicates on this instance wait on that future, duplicates on other instances or
+ * after eviction find the stored outcome in the table. Either way they get the first answer
+ * back without running the order again. Only 2xx and 4xx answers are kept: after a 5xx the
+ * key is released so a retry can succeed. A key reused with a different request body gets a
+ * 422. Keys are kept for {@code order.idempotency.retention}; an in-progress claim older than
+ * {@code lock-timeout} (its instance died) can be taken over.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final int MAX_BODY_LENGTH = 4000;
+    private static final String CACHE_NAME = "idempotencyKeys";
+    private static final Outcome IN_PROGRESS = new Outcome(null, 0, null);
+
+    private static final String INSERT = "insert into idempotency_key_tbl (idempotency_key, request_hash, created_at) values (?, ?, ?)";
+    private static final String TAKE_OVER = "update idempotency_key_tbl set request_hash = ?, status = null, body = null, created_at = ? "
+            + "where idempotency_key = ? and (created_at < ? or (status is null and created_at < ?))";
+    private static final String SELECT = "select request_hash, status, body from idempotency_key_tbl where idempotency_key = ?";
+    private static final String COMPLETE = "update idempotency_key_tbl set status = ?, body = ? where idempotency_key = ?";
+    private static final String RELEASE = "delete from idempotency_key_tbl where idempotency_key = ? and status is null";
+    private static final String EXPIRE = "delete from idempotency_key_tbl where created_at < ?";
+
+    private static final RowMapper<Outcome> OUTCOME_MAPPER = (rs, rowNum) -> {
+        int status = rs.getInt(2);
+        return rs.wasNull() ? IN_PROGRESS : new Outcome(rs.getString(1), status, rs.getString(3));
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration retention;
+    private final Duration waitTimeout;
+    private final Duration lockTimeout;
+    private final Cache<String, CompletableFuture<Outcome>> inFlight;
+    private final Counter memoryReplays;
+    private final Counter databaseReplays;
+
+    public IdempotencyStore(JdbcTemplate jdbcTemplate,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${order.idempotency.max-keys:100000}") long maxKeys,
+                            @Value("${order.idempotency.retention:24h}") Duration retention,
+                            @Value("${order.idempotency.wait-timeout:30s}") Duration waitTimeout,
+                            @Value("${order.idempotency.lock-timeout:2m}") Duration lockTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.retention = retention;
+        this.waitTimeout = waitTimeout;
+        this.lockTimeout = lockTimeout;
+        this.inFlight = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(retention)
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+        this.memoryReplays = Counter.builder("order.idempotency.replays")
+                .tag("source", "memory")
+                .description("Duplicate requests answered from the in-memory store")
+                .register(meterRegistry);
+        this.databaseReplays = Counter.builder("order.idempotency.replays")
+                .tag("source", "database")
+                .description("Duplicate requests answered from the database")
+                .register(meterRegistry);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, inFlight, CACHE_NAME);
+    }
+
+    /**
+     * Runs {@code action} once per key and answers duplicates with its response.
+     */
+    public ResponseEntity<?> execute(String key, Object request, Supplier<ResponseEntity<?>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new CustomException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters", HttpStatus.BAD_REQUEST);
+        }
+        String requestHash = fingerprint(request);
+
+        while (true) {
+            CompletableFuture<Outcome> claim = new CompletableFuture<>();
+            CompletableFuture<Outcome> existing = inFlight.asMap().putIfAbsent(key, claim);
+            if (existing == null) {
+                return runOnce(key, requestHash, claim, action);
+            }
+
+            Outcome outcome;
+            try {
+                outcome = existing.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | ExecutionException ex) {
+                return stillInProgress(key);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return stillInProgress(key);
+            }
+            if (outcome != null) {
+                return replay(outcome, requestHash, memoryReplays);
+            }
+            // the first attempt was not kept, so this request may run it again
+        }
+    }
+
+    private ResponseEntity<?> runOnce(String key, String requestHash, CompletableFuture<Outcome> claim, Supplier<ResponseEntity<?>> action) {
+        ResponseEntity<?> response;
+        try {
+            Outcome stored = claim(key, requestHash);
+            if (stored == IN_PROGRESS) {
+                forget(key, claim);
+                return stillInProgress(key);
+            }
+            if (stored != null) {
+                claim.complete(stored);
+                return replay(stored, requestHash, databaseReplays);
+            }
+
+            response = action.get();
+        } catch (RuntimeException ex) {
+            release(key);
+            forget(key, claim);
+            throw ex;
+        }
+
+        Outcome outcome = keepable(requestHash, response);
+        if (outcome == null) {
+            release(key);
+            forget(key, claim);
+            return response;
+        }
+        try {
+            jdbcTemplate.update(COMPLETE, outcome.status(), outcome.body(), key);
+        } catch (RuntimeException ex) {
+            log.warn("Could not store the outcome of idempotency key {}: {}", key, ex.getMessage());
+        }
+        claim.complete(outcome);
+        return response;
+    }
+
+    /**
+     * Null when this caller now owns the key, otherwise the stored outcome or {@link #IN_PROGRESS}.
+     */
+    private Outcome claim(String key, String requestHash) {
+        Timestamp now = Timestamp.from(Instant.now());
+        try {
+            jdbcTemplate.update(INSERT, key, requestHash, now);
+            return null;
+        } catch (DuplicateKeyException ex) {
+            log.debug("Idempotency key {} already claimed", key);
+        }
+
+        Timestamp expiredBefore = Timestamp.from(now.toInstant().minus(retention));
+        Timestamp abandonedBefore = Timestamp.from(now.toInstant().minus(lockTimeout));
+        if (jdbcTemplate.update(TAKE_OVER, requestHash, now, key, expiredBefore, abandonedBefore) == 1) {
+            return null;
+        }
+        List<Outcome> stored = jdbcTemplate.query(SELECT, OUTCOME_MAPPER, key);
+        // released between the insert and the select
+        return stored.isEmpty() ? claim(key, requestHash) : stored.getFirst();
+    }
+
+    private void release(String key) {
+        try {
+            jdbcTemplate.update(RELEASE, key);
+        } catch (RuntimeException ex) {
+            log.warn("Could not release idempotency key {}: {}", key, ex.getMessage());
+        }
+    }
+
+    // waiters see null and try to run the request themselves
+    private void forget(String key, CompletableFuture<Outcome> claim) {
+        inFlight.asMap().remove(key, claim);
+        claim.complete(null);
+    }
+
+    private Outcome keepable(String requestHash, ResponseEntity<?> response) {
+        if (response.getStatusCode().is5xxServerError()) {
+            return null;
+        }
+        try {
+            String body = objectMapper.writeValueAsString(response.getBody());
+            return body.length() > MAX_BODY_LENGTH ? null : new Outcome(requestHash, response.getStatusCode().value(), body);
+        } catch (JsonProcessingException ex) {
+            return null;
+        }
+    }
+
+    private ResponseEntity<?> replay(Outcome outcome, String requestHash, Counter replays) {
+        if (!outcome.requestHash().equals(requestHash)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(HEADER + " was already used for a different request");
+        }
+
+        replays.increment();
+        Object body;
+        try {
+            JsonNode node = objectMapper.readTree(outcome.body());
+            body = node.isNull() ? null : node.isTextual() ? node.asText() : node;
+        } catch (JsonProcessingException ex) {
+            body = outcome.body();
+        }
+        return ResponseEntity.status(outcome.status()).header(REPLAYED_HEADER, "true").body(body);
+    }
+
+    private static ResponseEntity<?> stillInProgress(String key) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("A request with " + HEADER + " " + key + " is still in progress");
+    }
+
+    String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException | JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot fingerprint request", ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.idempotency.cleanup-interval:10m}")
+    public void expire() {
+        int deleted = jdbcTemplate.update(EXPIRE, Timestamp.from(Instant.now().minus(retention)));
+        if (deleted > 0) {
+            log.info("Expired {} idempotency keys", deleted);
+        }
+    }
+
+    record Outcome(String requestHash, int status, String body) {
+    }
+}
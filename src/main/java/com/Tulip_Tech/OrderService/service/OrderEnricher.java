@@ -0,0 +1,94 @@
+package com.Tulip_Tech.OrderService.service;
+
+import com.Tulip_Tech.OrderService.client.PaymentServiceClient;
+import com.Tulip_Tech.OrderService.client.ProductDetailsCache;
+import com.Tulip_Tech.OrderService.entity.OrderEntity;
+import com.Tulip_Tech.OrderService.mapper.OrderMapper;
+import com.Tulip_Tech.OrderService.model.domain.Order;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Attaches product and payment details to a page of orders with one bulk lookup per
+ * downstream service for the distinct ids of the page, instead of two calls per order.
+ * Both lookups run concurrently on non-blocking clients; a lookup that fails or exceeds
+ * {@code order.enrichment.timeout} leaves only its own field empty.
+ */
+@Component
+@Slf4j
+public class OrderEnricher {
+
+    private final ProductDetailsCache productDetailsCache;
+    private final PaymentServiceClient paymentServiceClient;
+    private final OrderMapper orderMapper;
+    private final Duration lookupTimeout;
+    private final OrderStageMetrics stageMetrics;
+
+    public OrderEnricher(ProductDetailsCache productDetailsCache,
+                         PaymentServiceClient paymentServiceClient,
+                         OrderMapper orderMapper,
+                         @Value("${order.enrichment.timeout:5s}") Duration lookupTimeout,
+                         OrderStageMetrics stageMetrics) {
+        this.productDetailsCache = productDetailsCache;
+        this.paymentServiceClient = paymentServiceClient;
+        this.orderMapper = orderMapper;
+        this.lookupTimeout = lookupTimeout;
+        this.stageMetrics = stageMetrics;
+    }
+
+    public List<Order> enrich(List<OrderEntity> orderEntities) {
+        return enrichAsync(orderEntities).block();
+    }
+
+    public Mono<List<Order>> enrichAsync(List<OrderEntity> orderEntities) {
+        if (orderEntities.isEmpty()) {
+            return Mono.just(List.of());
+        }
+
+        Set<Long> productIds = orderEntities.stream().map(OrderEntity::getProductId).collect(Collectors.toSet());
+        Set<Long> orderIds = orderEntities.stream().map(OrderEntity::getOrderId).collect(Collectors.toSet());
+
+        Mono<Map<Long, Order.ProductDetails>> products = lookup("product", () -> productDetailsCache.getAll(productIds));
+        Mono<Map<Long, Order.PaymentDetails>> payments = lookup("payment", () -> paymentServiceClient.fetchPaymentsByOrderIds(orderIds));
+
+        long start = System.nanoTime();
+        return Mono.zip(products, payments).map(found -> orderEntities.stream().map(orderEntity -> {
+            Order order = orderMapper.EntityToOrder(orderEntity);
+            // a failed or empty lookup keeps whatever the stored snapshot had
+            Order.ProductDetails product = found.getT1().get(orderEntity.getProductId());
+            if (product != null) {
+                order.setProductDetails(product);
+            }
+            Order.PaymentDetails payment = found.getT2().get(orderEntity.getOrderId());
+            if (payment != null) {
+                order.setPaymentDetails(payment);
+            }
+            return order;
+        }).toList()).doOnSuccess(orders -> stageMetrics.recordEnrichment("all", start, "success"));
+    }
+
+    private <T> Mono<Map<Long, T>> lookup(String dependency, Supplier<Mono<Map<Long, T>>> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return Mono.defer(call)
+                    .timeout(lookupTimeout)
+                    .doOnSuccess(found -> stageMetrics.recordEnrichment(dependency, start, "success"))
+                    .onErrorResume(ex -> {
+                        stageMetrics.recordEnrichment(dependency, start, ex instanceof TimeoutException ? "timeout" : "error");
+                        log.error("Error occurred while fetching {} details for the page: {}", dependency, ex.toString());
+                        return Mono.just(Map.<Long, T>of());
+                    })
+                    .defaultIfEmpty(Map.of());
+        });
+    }
+}
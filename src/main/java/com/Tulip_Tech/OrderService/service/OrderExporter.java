@@ -0,0 +1,195 @@
+package com.Tulip_Tech.OrderService.service;
+
+import com.Tulip_Tech.OrderService.exception.CustomException;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the order history to a stream one row at a time. Rows come from a forward-only,
+ * read-only JDBC cursor ({@code useCursorFetch=true} makes the fetch size apply on MySQL), go
+ * through one reusable buffer and are never mapped to entities, so heap use does not grow with
+ * the number of orders. Rows are in order id order, so an interrupted export can resume with
+ * the last id it received.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class OrderExporter {
+
+    private static final int FETCH_SIZE = 1_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String SQL = "select order_id, product_id, quantity, order_status, order_date, total_amount, payment_mode, "
+            + "product_name, product_price, payment_reference, payment_status, payment_date "
+            + "from orders_tbl where order_id > ? order by order_id";
+    private static final String[] COLUMNS = {"orderId", "productId", "quantity", "orderStatus", "orderDate", "totalAmount",
+            "paymentMode", "productName", "productPrice", "paymentReference", "paymentStatus", "paymentDate"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format of(String format) {
+            try {
+                return valueOf(format.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new CustomException("Unsupported export format: " + format, HttpStatus.BAD_REQUEST);
+            }
+        }
+    }
+
+    public void export(Format format, Long after, boolean gzip, OutputStream outputStream) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(outputStream, BUFFER_SIZE) : outputStream;
+        OutputStream buffered = new BufferedOutputStream(target, BUFFER_SIZE);
+        long start = System.nanoTime();
+
+        long rows = format == Format.NDJSON ? exportNdjson(after, buffered) : exportCsv(after, buffered);
+
+        buffered.flush();
+        if (target instanceof GZIPOutputStream gzipStream) {
+            gzipStream.finish();
+        }
+        log.info("Exported {} orders as {} in {} ms", rows, format, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private long exportNdjson(Long after, OutputStream out) throws IOException {
+        long[] rows = {0};
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            // the caller owns the response stream
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            streamRows(after, rs -> {
+                try {
+                    generator.writeStartObject();
+                    generator.writeNumberField(COLUMNS[0], rs.getLong(1));
+                    generator.writeNumberField(COLUMNS[1], rs.getLong(2));
+                    generator.writeNumberField(COLUMNS[2], rs.getLong(3));
+                    generator.writeStringField(COLUMNS[3], rs.getString(4));
+                    generator.writeStringField(COLUMNS[4], instant(rs, 5));
+                    generator.writeNumberField(COLUMNS[5], rs.getLong(6));
+                    generator.writeStringField(COLUMNS[6], rs.getString(7));
+                    generator.writeStringField(COLUMNS[7], rs.getString(8));
+                    writeNullableNumber(generator, COLUMNS[8], rs, 9);
+                    generator.writeStringField(COLUMNS[9], rs.getString(10));
+                    generator.writeStringField(COLUMNS[10], rs.getString(11));
+                    generator.writeStringField(COLUMNS[11], instant(rs, 12));
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                    rows[0]++;
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+        return rows[0];
+    }
+
+    private long exportCsv(Long after, OutputStream out) throws IOException {
+        long[] rows = {0};
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        StringBuilder line = new StringBuilder(256);
+        writer.write(String.join(",", COLUMNS));
+        writer.write('\n');
+        streamRows(after, rs -> {
+            line.setLength(0);
+            for (int column = 1; column <= COLUMNS.length; column++) {
+                if (column > 1) {
+                    line.append(',');
+                }
+                appendCsv(line, column == 5 || column == 12 ? instant(rs, column) : rs.getString(column));
+            }
+            line.append('\n');
+            try {
+                writer.append(line);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            rows[0]++;
+        });
+        writer.flush();
+        return rows[0];
+    }
+
+    private void streamRows(Long after, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setLong(1, after == null ? 0L : after);
+            return statement;
+        }, handler);
+    }
+
+    static void appendCsv(StringBuilder line, String value) {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    // Hibernate stores Instant columns as UTC wall-clock time
+    private static String instant(ResultSet rs, int column) throws SQLException {
+        LocalDateTime value = rs.getObject(column, LocalDateTime.class);
+        return value == null ? null : value.toInstant(ZoneOffset.UTC).toString();
+    }
+
+    private static void writeNullableNumber(JsonGenerator generator, String field, ResultSet rs, int column) throws SQLException, IOException {
+        long value = rs.getLong(column);
+        if (rs.wasNull()) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeNumberField(field, value);
+        }
+    }
+}
@@ -1,13 +1,27 @@
 package com.Tulip_Tech.OrderService.service;
 
 import com.Tulip_Tech.OrderService.model.Dto.CreateOrderRequest;
+import com.Tulip_Tech.OrderService.model.Dto.CursorPage;
+import com.Tulip_Tech.OrderService.model.Dto.OrderSearchCriteria;
+import com.Tulip_Tech.OrderService.model.Dto.OrderSearchPage;
 import com.Tulip_Tech.OrderService.model.domain.Order;
 import org.springframework.http.ResponseEntity;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface OrderService {
     ResponseEntity<?> placeOrder(CreateOrderRequest createOrderRequest);
 
-    List<Order> getAll();
+    ResponseEntity<?> placeOrders(List<CreateOrderRequest> createOrderRequests);
+
+    ResponseEntity<?> placeOrderAsync(CreateOrderRequest createOrderRequest);
+
+    ResponseEntity<?> getOrderStatus(Long orderId);
+
+    CursorPage<Order> getPage(Long cursor, int size, boolean live);
+
+    OrderSearchPage search(OrderSearchCriteria criteria, int size);
+
+    void streamOrders(Long cursor, boolean live, Consumer<Order> consumer);
 }
@@ -1,24 +1,38 @@
 package com.Tulip_Tech.OrderService.service;
 
 
-import com.Tulip_Tech.OrderService.client.PaymentServiceClient;
-import com.Tulip_Tech.OrderService.client.ProductServiceClient;
+import com.Tulip_Tech.OrderService.client.InventoryLeases;
+import com.Tulip_Tech.OrderService.client.ProductDetailsCache;
+import com.Tulip_Tech.OrderService.client.ReduceQuantityCoalescer;
 import com.Tulip_Tech.OrderService.entity.OrderEntity;
 import com.Tulip_Tech.OrderService.exception.CustomException;
 import com.Tulip_Tech.OrderService.exception.ServiceUnavailableException;
 import com.Tulip_Tech.OrderService.mapper.OrderMapper;
 import com.Tulip_Tech.OrderService.model.Dto.CreateOrderRequest;
-import com.Tulip_Tech.OrderService.model.Dto.CreatePaymentRequest;
+import com.Tulip_Tech.OrderService.model.Dto.CursorPage;
+import com.Tulip_Tech.OrderService.model.Dto.OrderPlacementResult;
+import com.Tulip_Tech.OrderService.model.Dto.OrderSearchCriteria;
+import com.Tulip_Tech.OrderService.model.Dto.OrderSearchPage;
+import com.Tulip_Tech.OrderService.model.Dto.OrderStatusResponse;
+import com.Tulip_Tech.OrderService.model.Dto.OrderSummary;
+import com.Tulip_Tech.OrderService.model.OrderStatus;
 import com.Tulip_Tech.OrderService.model.domain.Order;
 import com.Tulip_Tech.OrderService.repository.OrderRepository;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import com.Tulip_Tech.OrderService.service.OrderStageMetrics.Stage;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
@@ -26,33 +40,37 @@ import java.util.List;
 public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
-    private final ProductServiceClient productServiceClient;
-    private final PaymentServiceClient paymentServiceClient;
+    private final ReduceQuantityCoalescer reduceQuantityCoalescer;
+    private final ProductDetailsCache productDetailsCache;
     private final OrderMapper orderMapper;
+    private final OrderWriter orderWriter;
+    private final OrderEnricher orderEnricher;
+    private final EntityManager entityManager;
+    private final OrderWorkerPool orderWorkerPool;
+    private final InventoryLeases inventoryLeases;
+    private final OrderStageMetrics stageMetrics;
 
-    private static final String PRODUCT_SERVICE = "productService";
-    private static final String PAYMENT_SERVICE = "paymentService";
-    private static final String GET_PRODUCT_DETAILS = "getProductDetails";
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int STREAM_CHUNK_SIZE = 500;
+    private static final int MAX_BULK_ORDERS = 500;
 
     @Override
     public ResponseEntity<?> placeOrder(CreateOrderRequest createOrderRequest) {
 
+        long start = System.nanoTime();
+        boolean reduced = false;
+        boolean placed = false;
         //reduce the quantity of product
         try {
-            callProductServiceReduceQuantity(createOrderRequest.productId(), createOrderRequest.quantity());
+            Order.ProductDetails product = stageMetrics.time(Stage.PRODUCT, () -> productAtOrderTime(createOrderRequest.productId()));
+            stageMetrics.run(Stage.INVENTORY, () -> callProductServiceReduceQuantity(createOrderRequest.productId(), createOrderRequest.quantity()));
+            reduced = true;
 
-            OrderEntity orderEntity = orderMapper.createOrderEntity(createOrderRequest);
-            orderRepository.save(orderEntity);
-
-            log.info("calling payment service to complete the payment");
-            CreatePaymentRequest request = new CreatePaymentRequest(
-                    orderEntity.getOrderId(),
-                    orderEntity.getTotalAmount(),
-                    orderEntity.getPayment_mode(),
-                    "Me"
-            );
-
-            callPaymentServiceDoPayment(request);
+            OrderEntity orderEntity = stageMetrics.time(Stage.MAPPER, () -> orderMapper.createOrderEntity(createOrderRequest));
+            applyProductSnapshot(orderEntity, product);
+            // the payment is queued in the same transaction and sent by PaymentOutboxDispatcher
+            stageMetrics.time(Stage.PERSIST, () -> orderWriter.persistWithPayment(orderEntity));
+            placed = true;
 
             log.info("Order Placed with orderId={}", orderEntity);
             return ResponseEntity.ok(orderEntity.getOrderId());
@@ -74,61 +92,243 @@ public class OrderServiceImpl implements OrderService {
             log.error("Unexpected error occurred: {}", ex.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Unexpected Error: " + ex.getMessage());
 
+        } finally {
+            if (reduced && !placed) {
+                restoreQuantity(createOrderRequest.productId(), createOrderRequest.quantity());
+            }
+            stageMetrics.record(Stage.TOTAL, start, placed);
         }
 
 
     }
 
     @Override
-    public List<Order> getAll() {
-        List<OrderEntity> orderEntities = orderRepository.findAll();
+    public ResponseEntity<?> placeOrders(List<CreateOrderRequest> createOrderRequests) {
+        if (createOrderRequests == null || createOrderRequests.isEmpty()) {
+            return ResponseEntity.badRequest().body("No orders to place");
+        }
+        if (createOrderRequests.size() > MAX_BULK_ORDERS) {
+            return ResponseEntity.badRequest().body("At most " + MAX_BULK_ORDERS + " orders can be placed at once");
+        }
 
-        return orderEntities.parallelStream().map(orderEntity -> {
-            Order order = orderMapper.EntityToOrder(orderEntity);
+        OrderPlacementResult[] results = new OrderPlacementResult[createOrderRequests.size()];
+        List<OrderEntity> accepted = new ArrayList<>(createOrderRequests.size());
+        List<Integer> acceptedIndexes = new ArrayList<>(createOrderRequests.size());
 
+        for (int i = 0; i < createOrderRequests.size(); i++) {
+            CreateOrderRequest createOrderRequest = createOrderRequests.get(i);
             try {
-                Order.ProductDetails productDetails = productServiceClient.getProductById(orderEntity.getProductId());
-                order.setProductDetails(productDetails);
+                validate(createOrderRequest);
+                Order.ProductDetails product = productAtOrderTime(createOrderRequest.productId());
+                callProductServiceReduceQuantity(createOrderRequest.productId(), createOrderRequest.quantity());
+                OrderEntity orderEntity = orderMapper.createOrderEntity(createOrderRequest);
+                applyProductSnapshot(orderEntity, product);
+                accepted.add(orderEntity);
+                acceptedIndexes.add(i);
+            } catch (ServiceUnavailableException ex) {
+                results[i] = OrderPlacementResult.failed(i, HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+            } catch (CustomException ex) {
+                results[i] = OrderPlacementResult.failed(i, ex.getHttpStatus(), ex.getMessage());
             } catch (Exception ex) {
-                log.error("Error occurred while fetching product details for productId {}: {}", orderEntity.getProductId(), ex.getMessage());
-                order.setProductDetails(null);
+                log.error("Unexpected error for bulk order item {}: {}", i, ex.getMessage());
+                results[i] = OrderPlacementResult.failed(i, HttpStatus.INTERNAL_SERVER_ERROR, "Unexpected Error: " + ex.getMessage());
             }
+        }
 
+        if (!accepted.isEmpty()) {
             try {
-                order.setPaymentDetails(paymentServiceClient.getPaymentByOrderId(orderEntity.getOrderId()));
-            }catch (Exception ex) {
-                log.error("Error occurred while fetching payment details for orderId {}: {}", orderEntity.getOrderId(), ex.getMessage());
-                order.setPaymentDetails(null);
+                orderWriter.persistAllWithPayment(accepted);
+                for (int j = 0; j < accepted.size(); j++) {
+                    results[acceptedIndexes.get(j)] = OrderPlacementResult.placed(acceptedIndexes.get(j), accepted.get(j).getOrderId());
+                }
+            } catch (Exception ex) {
+                log.error("Saving {} bulk orders failed, giving their stock back: {}", accepted.size(), ex.getMessage());
+                accepted.forEach(orderEntity -> restoreQuantity(orderEntity.getProductId(), orderEntity.getQuantity()));
+                acceptedIndexes.forEach(i -> results[i] = OrderPlacementResult.failed(i, HttpStatus.INTERNAL_SERVER_ERROR, "Order could not be saved"));
             }
-            return order;
-        }).toList();
+        }
+
+        log.info("Bulk placement: {} of {} orders placed", accepted.size(), results.length);
+        List<OrderPlacementResult> body = Arrays.asList(results);
+        boolean allPlaced = body.stream().allMatch(OrderPlacementResult::isPlaced);
+        return ResponseEntity.status(allPlaced ? HttpStatus.OK : HttpStatus.MULTI_STATUS).body(body);
     }
 
-    @CircuitBreaker(name = PRODUCT_SERVICE, fallbackMethod = "reduceQuantityFallback")
-    private void callProductServiceReduceQuantity(Long productId, long quantity) {
+    @Override
+    public ResponseEntity<?> placeOrderAsync(CreateOrderRequest createOrderRequest) {
+        try {
+            validate(createOrderRequest);
 
-        log.info("Calling ProductService to reduce quantity for productId: {}", productId);
-        productServiceClient.reduceQuantity(productId, quantity);
-        log.info("Product quantity reduced successfully for productId: {}", productId);
+            OrderEntity accepted = orderWorkerPool.accept(() -> {
+                OrderEntity orderEntity = orderMapper.createOrderEntity(createOrderRequest);
+                orderEntity.setOrderStatus(OrderStatus.PENDING.name());
+                orderRepository.save(orderEntity);
+                return orderEntity;
+            }, this::completePendingOrder, this::failPendingOrder);
+
+            log.info("Order accepted with orderId={}", accepted.getOrderId());
+            return ResponseEntity.accepted().body(accepted.getOrderId());
+
+        } catch (ServiceUnavailableException ex) {
+
+            log.warn("Order rejected: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ex.getMessage());
+
+        } catch (CustomException ex) {
+
+            log.error("Invalid order request: {}", ex.getMessage());
+            return ResponseEntity.status(ex.getHttpStatus()).body(ex.getMessage());
+
+        } catch (Exception ex) {
+
+            log.error("Unexpected error occurred: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Unexpected Error: " + ex.getMessage());
+
+        }
+    }
+
+    @Override
+    public ResponseEntity<?> getOrderStatus(Long orderId) {
+        return orderRepository.findById(orderId)
+                .<ResponseEntity<?>>map(orderEntity -> ResponseEntity.ok(new OrderStatusResponse(orderEntity.getOrderId(), orderEntity.getOrderStatus())))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Order not found with orderId: " + orderId));
+    }
+
+    void completePendingOrder(OrderEntity orderEntity) {
+        boolean reduced = false;
+        try {
+            Order.ProductDetails product = productAtOrderTime(orderEntity.getProductId());
+            callProductServiceReduceQuantity(orderEntity.getProductId(), orderEntity.getQuantity());
+            reduced = true;
+
+            applyProductSnapshot(orderEntity, product);
+            orderEntity.setOrderStatus(OrderStatus.CREATED.name());
+            orderWriter.persistWithPayment(orderEntity);
+
+            log.info("Pending order completed with orderId={}", orderEntity.getOrderId());
+        } catch (Exception ex) {
+
+            log.error("Pending order {} failed: {}", orderEntity.getOrderId(), ex.getMessage());
+            if (reduced) {
+                restoreQuantity(orderEntity.getProductId(), orderEntity.getQuantity());
+            }
+            failPendingOrder(orderEntity);
+        }
+    }
+
+    /**
+     * Queues a PENDING order that {@link PendingOrderRecovery} found stranded. A refused order
+     * stays PENDING for the next recovery run.
+     */
+    public void resumePendingOrder(OrderEntity orderEntity) {
+        orderWorkerPool.accept(() -> orderEntity, this::completePendingOrder, stranded -> { });
+        log.info("Pending order {} queued again", orderEntity.getOrderId());
+    }
+
+    private void failPendingOrder(OrderEntity orderEntity) {
+        orderEntity.setOrderStatus(OrderStatus.FAILED.name());
+        orderRepository.save(orderEntity);
+    }
+
+    // read before reduceQuantity, which evicts the product from the cache
+    private Order.ProductDetails productAtOrderTime(Long productId) {
+        try {
+            return productDetailsCache.get(productId);
+        } catch (RuntimeException ex) {
+            log.warn("No product snapshot for productId {}: {}", productId, ex.getMessage());
+            return null;
+        }
+    }
+
+    private void applyProductSnapshot(OrderEntity orderEntity, Order.ProductDetails product) {
+        if (product != null) {
+            orderEntity.snapshot().setProductName(product.getProductName());
+            orderEntity.snapshot().setProductPrice(product.getPrice());
+        }
+    }
+
+    private void validate(CreateOrderRequest createOrderRequest) {
+        if (createOrderRequest.quantity() <= 0) {
+            throw new CustomException("Quantity must be greater than zero", HttpStatus.BAD_REQUEST);
+        }
+        if (createOrderRequest.totalAmount() < 0) {
+            throw new CustomException("Total amount must not be negative", HttpStatus.BAD_REQUEST);
+        }
+        if (createOrderRequest.payment_mode() == null) {
+            throw new CustomException("Payment mode is required", HttpStatus.BAD_REQUEST);
+        }
     }
 
-    private void reduceQuantityFallback(Long productId, long quantity, Throwable t) {
+    @Override
+    public CursorPage<Order> getPage(Long cursor, int size, boolean live) {
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        List<OrderEntity> orderEntities = orderRepository.findByOrderIdGreaterThanOrderByOrderIdAsc(
+                cursor == null ? 0L : cursor, Limit.of(pageSize));
+
+        List<Order> orders = toOrders(orderEntities, live);
+        Long nextCursor = orderEntities.size() < pageSize ? null : orderEntities.getLast().getOrderId();
+        return new CursorPage<>(orders, nextCursor);
+    }
 
-        log.error("Circuit Breaker OPEN or FAILED for ProductService. reduceQuantity for productId: {} failed. Error: {}", productId, t.getMessage());
-        throw new ServiceUnavailableException("Product Service is down or timed out. Inventory check failed.", HttpStatus.SERVICE_UNAVAILABLE);
+    @Override
+    public OrderSearchPage search(OrderSearchCriteria criteria, int size) {
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        List<OrderSummary> items = orderRepository.search(criteria, pageSize);
+        if (items.size() < pageSize) {
+            return new OrderSearchPage(items, null, null);
+        }
+
+        OrderSummary last = items.getLast();
+        return new OrderSearchPage(items, last.orderDate(), last.orderId());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamOrders(Long cursor, boolean live, Consumer<Order> consumer) {
+        List<OrderEntity> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+
+        try (Stream<OrderEntity> orderEntities = orderRepository.streamByOrderIdGreaterThan(cursor == null ? 0L : cursor)) {
+            orderEntities.forEach(orderEntity -> {
+                chunk.add(orderEntity);
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    emitChunk(chunk, live, consumer);
+                }
+            });
+        }
+        emitChunk(chunk, live, consumer);
     }
 
-    @CircuitBreaker(name = PAYMENT_SERVICE, fallbackMethod = "doPaymentFallback")
-    private void callPaymentServiceDoPayment(CreatePaymentRequest request){
+    private void emitChunk(List<OrderEntity> chunk, boolean live, Consumer<Order> consumer) {
+        toOrders(chunk, live).forEach(consumer);
+        // drop the emitted rows from the persistence context so the heap stays flat
+        entityManager.clear();
+        chunk.clear();
+    }
 
-        log.info("Attempting to process payment for orderId: {}", request.orderId());
-        paymentServiceClient.doPayment(request);
-        log.info("Payment processed successfully for orderId: {}", request.orderId());
+    // stored snapshots by default; live asks product-service and payment-service again
+    private List<Order> toOrders(List<OrderEntity> orderEntities, boolean live) {
+        if (live) {
+            return orderEnricher.enrich(orderEntities);
+        }
+        return orderEntities.stream().map(orderMapper::EntityToOrder).toList();
     }
 
-    private void doPaymentFallback(CreatePaymentRequest request, Throwable t) {
+    // circuit breaker and bulkhead are applied on ProductServiceClient#reduceQuantity
+    private void callProductServiceReduceQuantity(Long productId, long quantity) {
+        if (inventoryLeases.tryReserve(productId, quantity)) {
+            log.debug("Reserved {} units of productId {} from the local lease", quantity, productId);
+            return;
+        }
+
+        log.info("Calling ProductService to reduce quantity for productId: {}", productId);
+        // the cached entry is left alone: orders only read name and price from it, and dropping it
+        // here would send every order for a hot product back to product-service
+        reduceQuantityCoalescer.reduceQuantity(productId, quantity);
+        log.info("Product quantity reduced successfully for productId: {}", productId);
+    }
 
-        log.error("Circuit Breaker OPEN or FAILED for PaymentService. doPayment for orderId: {} failed. Error: {}", request.orderId(), t.getMessage());
-        throw new ServiceUnavailableException("Payment Service is down or timed out. Payment could not be processed.", HttpStatus.SERVICE_UNAVAILABLE);
+    // stock taken for an order that was not saved; lease or product-service, whichever has room
+    private void restoreQuantity(Long productId, long quantity) {
+        inventoryLeases.release(productId, quantity);
     }
 }
@@ -0,0 +1,92 @@
+package com.Tulip_Tech.OrderService.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Latency of each step of order placement ({@code order.place.stage}, tagged by stage and
+ * outcome) and of the enrichment lookups ({@code order.enrichment}, tagged by dependency and
+ * outcome). All timers publish percentile histograms, so p99 can be aggregated across
+ * instances, and the Prometheus registry attaches the current trace id to the buckets as an
+ * exemplar. Timers for placement are registered up front so the hot path only reads a field.
+ */
+@Component
+public class OrderStageMetrics {
+
+    public static final String PLACE_STAGE = "order.place.stage";
+    public static final String ENRICHMENT = "order.enrichment";
+
+    private static final Duration MIN_EXPECTED = Duration.ofNanos(50_000);
+    private static final Duration MAX_EXPECTED = Duration.ofSeconds(30);
+
+    public enum Stage {
+        PRODUCT, INVENTORY, MAPPER, PERSIST, PAYMENT, TOTAL;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Stage, Timer> succeeded = new EnumMap<>(Stage.class);
+    private final Map<Stage, Timer> failed = new EnumMap<>(Stage.class);
+    private final ConcurrentMap<String, Timer> enrichmentTimers = new ConcurrentHashMap<>();
+
+    public OrderStageMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (Stage stage : Stage.values()) {
+            succeeded.put(stage, timer(PLACE_STAGE, "stage", stage.tag, "success"));
+            failed.put(stage, timer(PLACE_STAGE, "stage", stage.tag, "error"));
+        }
+    }
+
+    public <T> T time(Stage stage, Supplier<T> step) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = step.get();
+            success = true;
+            return result;
+        } finally {
+            record(stage, start, success);
+        }
+    }
+
+    public void run(Stage stage, Runnable step) {
+        time(stage, () -> {
+            step.run();
+            return null;
+        });
+    }
+
+    public void record(Stage stage, long startNanos, boolean success) {
+        (success ? succeeded : failed).get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param dependency {@code product}, {@code payment} or {@code all} for the whole page
+     * @param outcome    {@code success}, {@code error} or {@code timeout}
+     */
+    public void recordEnrichment(String dependency, long startNanos, String outcome) {
+        enrichmentTimers.computeIfAbsent(dependency + '/' + outcome, key -> timer(ENRICHMENT, "dependency", dependency, outcome))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String name, String dimension, String value, String outcome) {
+        return Timer.builder(name)
+                .tag(dimension, value)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED)
+                .maximumExpectedValue(MAX_EXPECTED)
+                .register(meterRegistry);
+    }
+}
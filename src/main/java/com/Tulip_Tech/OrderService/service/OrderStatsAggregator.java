@@ -0,0 +1,323 @@
+package com.Tulip_Tech.OrderService.service;
+
+import com.Tulip_Tech.OrderService.entity.OrderEntity;
+import com.Tulip_Tech.OrderService.entity.OrderStatsCheckpointEntity;
+import com.Tulip_Tech.OrderService.entity.OrderStatsEntity;
+import com.Tulip_Tech.OrderService.entity.OrderStatsKey;
+import com.Tulip_Tech.OrderService.exception.CustomException;
+import com.Tulip_Tech.OrderService.model.Dto.OrderStats;
+import com.Tulip_Tech.OrderService.model.Dto.StatTotals;
+import com.Tulip_Tech.OrderService.model.OrderStatus;
+import com.Tulip_Tech.OrderService.model.OrdersPlacedEvent;
+import com.Tulip_Tech.OrderService.model.Payment_Mode;
+import com.Tulip_Tech.OrderService.repository.OrderStatsCheckpointRepository;
+import com.Tulip_Tech.OrderService.repository.OrderStatsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running revenue and volume of placed orders per hour, product and payment mode, for the last
+ * {@link #MAX_HOURS} hours. Orders are added after the transaction in {@link OrderWriter}
+ * commits, so reads never touch {@code orders_tbl}; the cost of {@link #stats} depends on the
+ * number of hours asked for, not on the number of orders.
+ * <p>
+ * The totals are loaded once at startup, before the web server takes requests, from the
+ * checkpoint plus an aggregate over the open hours. Closed hours (older than
+ * {@code order.stats.grace}) are checkpointed into {@code order_stats_tbl}; each closed hour's
+ * bucket is then replaced by its checkpointed totals, which also picks up orders placed by other
+ * instances. Open hours are never reloaded, since an order could be counted both by the
+ * aggregate and by its commit event. {@link #scan} reads the whole range from {@code orders_tbl}
+ * and is only used when a caller asks for it explicitly.
+ */
+@Component
+@Slf4j
+public class OrderStatsAggregator implements SmartInitializingSingleton {
+
+    static final int MAX_HOURS = 31 * 24;
+    private static final Instant EPOCH = Instant.EPOCH;
+    private static final String HOUR_INDEX = "timestampdiff(hour, timestamp '1970-01-01 00:00:00', order_date)";
+    private static final String AGGREGATE_SQL = "select " + HOUR_INDEX + ", product_id, payment_mode, "
+            + "count(*), sum(quantity), sum(total_amount) from orders_tbl "
+            + "where order_status = ? and order_date >= ? and order_date < ? "
+            + "group by " + HOUR_INDEX + ", product_id, payment_mode";
+
+    private final OrderStatsRepository orderStatsRepository;
+    private final OrderStatsCheckpointRepository checkpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration grace;
+
+    private final ConcurrentMap<Long, HourTotals> hours = new ConcurrentHashMap<>();
+    // hours before this hold checkpointed totals; only touched by startup and the checkpoint job
+    private volatile Instant mergedUntil = EPOCH;
+
+    public OrderStatsAggregator(OrderStatsRepository orderStatsRepository,
+                                OrderStatsCheckpointRepository checkpointRepository,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${order.stats.grace:15m}") Duration grace) {
+        this.orderStatsRepository = orderStatsRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.grace = grace;
+    }
+
+    @TransactionalEventListener
+    public void onOrdersPlaced(OrdersPlacedEvent event) {
+        for (OrderEntity order : event.orders()) {
+            if (order.getOrderDate() == null) {
+                continue;
+            }
+            HourTotals bucket = hours.computeIfAbsent(hourOf(order.getOrderDate()), hour -> new HourTotals());
+            bucket.addProduct(order.getProductId(), 1, order.getQuantity(), order.getTotalAmount());
+            bucket.addPaymentMode(order.getPayment_mode(), 1, order.getQuantity(), order.getTotalAmount());
+        }
+    }
+
+    public OrderStats stats(Instant from, Instant to) {
+        if (from.isBefore(horizon())) {
+            throw new CustomException("In-memory stats cover the last " + MAX_HOURS + " hours, use source=scan for older ranges",
+                    HttpStatus.BAD_REQUEST);
+        }
+        return summarize(hours, from, to, "memory");
+    }
+
+    /**
+     * Same answer as {@link #stats}, computed from {@code orders_tbl}.
+     */
+    public OrderStats scan(Instant from, Instant to) {
+        checkRange(from, to);
+        log.warn("Order stats scan of orders_tbl requested for [{}, {})", from, to);
+        ConcurrentMap<Long, HourTotals> scanned = new ConcurrentHashMap<>();
+        aggregate(hourStart(from), hourEnd(to), scanned);
+        return summarize(scanned, from, to, "scan");
+    }
+
+    // runs before the web server starts, so no order is both aggregated and counted by its event
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    void rebuild() {
+        long start = System.nanoTime();
+        Instant horizon = horizon();
+        Instant closedUntil = checkpointRepository.findById(OrderStatsCheckpointEntity.ID)
+                .map(OrderStatsCheckpointEntity::getClosedUntil)
+                .orElse(null);
+
+        if (closedUntil == null) {
+            log.warn("No order stats checkpoint yet, aggregating the last {} hours of orders_tbl", MAX_HOURS);
+            closedUntil = EPOCH;
+        } else {
+            for (OrderStatsEntity row : orderStatsRepository.findHours(horizon, closedUntil)) {
+                add(hours, row);
+            }
+        }
+        aggregate(latest(closedUntil, horizon), Instant.now().plus(1, ChronoUnit.HOURS), hours);
+        mergedUntil = closedUntil;
+        log.info("Rebuilt order stats for {} hours in {} ms", hours.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Writes the hours that closed since the last checkpoint into {@code order_stats_tbl} and
+     * swaps their in-memory buckets for the checkpointed totals, together with any hours another
+     * instance checkpointed in the meantime. The checkpoint row is locked, so concurrent
+     * instances advance it once.
+     */
+    @Scheduled(initialDelayString = "${order.stats.checkpoint-interval:5m}", fixedDelayString = "${order.stats.checkpoint-interval:5m}")
+    public void checkpoint() {
+        Instant closeUntil = Instant.now().minus(grace).truncatedTo(ChronoUnit.HOURS);
+        Instant mergeFrom = latest(mergedUntil, horizon());
+        ConcurrentMap<Long, HourTotals> closed = new ConcurrentHashMap<>();
+        Instant closedUntil = transactionTemplate.execute(status -> {
+            OrderStatsCheckpointEntity checkpoint = checkpointRepository.lockById(OrderStatsCheckpointEntity.ID)
+                    .orElseGet(() -> new OrderStatsCheckpointEntity(OrderStatsCheckpointEntity.ID, EPOCH));
+            if (mergeFrom.isBefore(checkpoint.getClosedUntil())) {
+                for (OrderStatsEntity row : orderStatsRepository.findHours(mergeFrom, checkpoint.getClosedUntil())) {
+                    add(closed, row);
+                }
+            }
+            if (!checkpoint.getClosedUntil().isBefore(closeUntil)) {
+                return checkpoint.getClosedUntil();
+            }
+            ConcurrentMap<Long, HourTotals> newlyClosed = new ConcurrentHashMap<>();
+            aggregate(checkpoint.getClosedUntil(), closeUntil, newlyClosed);
+            orderStatsRepository.saveAll(toRows(newlyClosed));
+            closed.putAll(newlyClosed);
+            checkpoint.setClosedUntil(closeUntil);
+            checkpointRepository.save(checkpoint);
+            log.info("Checkpointed order stats for {} hours up to {}", newlyClosed.size(), closeUntil);
+            return closeUntil;
+        });
+        merge(closed, mergeFrom, closedUntil);
+        evict();
+    }
+
+    // a closed hour gets no more commit events, so its bucket can be replaced without losing any
+    private void merge(Map<Long, HourTotals> closed, Instant from, Instant until) {
+        if (!from.isBefore(until)) {
+            return;
+        }
+        for (long hour = hourOf(from), end = hourOf(until); hour < end; hour++) {
+            HourTotals bucket = closed.get(hour);
+            if (bucket == null) {
+                hours.remove(hour);
+            } else {
+                hours.put(hour, bucket);
+            }
+        }
+        mergedUntil = until;
+    }
+
+    private void evict() {
+        long oldest = hourOf(horizon());
+        hours.keySet().removeIf(hour -> hour < oldest);
+    }
+
+    int hoursHeld() {
+        return hours.size();
+    }
+
+    private static Instant horizon() {
+        return hourStart(Instant.now()).minus(MAX_HOURS, ChronoUnit.HOURS);
+    }
+
+    private static Instant latest(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private void aggregate(Instant from, Instant to, ConcurrentMap<Long, HourTotals> into) {
+        jdbcTemplate.query(AGGREGATE_SQL, rs -> {
+            HourTotals bucket = into.computeIfAbsent(rs.getLong(1), hour -> new HourTotals());
+            String paymentMode = rs.getString(3);
+            bucket.addProduct(rs.getLong(2), rs.getLong(4), rs.getLong(5), rs.getLong(6));
+            bucket.addPaymentMode(paymentMode == null ? null : Payment_Mode.valueOf(paymentMode), rs.getLong(4), rs.getLong(5), rs.getLong(6));
+        }, OrderStatus.CREATED.name(), LocalDateTime.ofInstant(from, ZoneOffset.UTC), LocalDateTime.ofInstant(to, ZoneOffset.UTC));
+    }
+
+    private static void add(ConcurrentMap<Long, HourTotals> into, OrderStatsEntity row) {
+        HourTotals bucket = into.computeIfAbsent(hourOf(row.getKey().getBucketHour()), hour -> new HourTotals());
+        String key = row.getKey().getDimensionKey();
+        if (OrderStatsEntity.PRODUCT.equals(row.getKey().getDimension())) {
+            bucket.addProduct(Long.valueOf(key), row.getOrders(), row.getQuantity(), row.getRevenue());
+        } else {
+            bucket.addPaymentMode(Payment_Mode.valueOf(key), row.getOrders(), row.getQuantity(), row.getRevenue());
+        }
+    }
+
+    private static List<OrderStatsEntity> toRows(Map<Long, HourTotals> closed) {
+        List<OrderStatsEntity> rows = new ArrayList<>();
+        closed.forEach((hour, bucket) -> {
+            Instant bucketHour = EPOCH.plus(hour, ChronoUnit.HOURS);
+            bucket.byProduct.forEach((productId, totals) -> rows.add(row(bucketHour, OrderStatsEntity.PRODUCT, productId.toString(), totals.snapshot())));
+            bucket.byPaymentMode.forEach((mode, totals) -> rows.add(row(bucketHour, OrderStatsEntity.PAYMENT_MODE, mode.name(), totals.snapshot())));
+        });
+        return rows;
+    }
+
+    private static OrderStatsEntity row(Instant bucketHour, String dimension, String key, StatTotals totals) {
+        return new OrderStatsEntity(new OrderStatsKey(bucketHour, dimension, key), totals.orders(), totals.quantity(), totals.revenue());
+    }
+
+    private static OrderStats summarize(Map<Long, HourTotals> source, Instant from, Instant to, String label) {
+        checkRange(from, to);
+        StatTotals total = StatTotals.ZERO;
+        Map<Long, StatTotals> byProduct = new HashMap<>();
+        Map<Payment_Mode, StatTotals> byPaymentMode = new HashMap<>();
+        Map<Instant, StatTotals> byHour = new TreeMap<>();
+        for (long hour = hourOf(from), end = hourOf(hourEnd(to)); hour < end; hour++) {
+            HourTotals bucket = source.get(hour);
+            if (bucket == null) {
+                continue;
+            }
+            StatTotals hourTotal = bucket.all.snapshot();
+            total = total.plus(hourTotal);
+            byHour.put(EPOCH.plus(hour, ChronoUnit.HOURS), hourTotal);
+            bucket.byProduct.forEach((productId, totals) -> byProduct.merge(productId, totals.snapshot(), StatTotals::plus));
+            bucket.byPaymentMode.forEach((mode, totals) -> byPaymentMode.merge(mode, totals.snapshot(), StatTotals::plus));
+        }
+        return new OrderStats(hourStart(from), hourEnd(to), label, total, byProduct, byPaymentMode, byHour);
+    }
+
+    private static void checkRange(Instant from, Instant to) {
+        if (!from.isBefore(to)) {
+            throw new CustomException("from must be before to", HttpStatus.BAD_REQUEST);
+        }
+        if (hourOf(hourEnd(to)) - hourOf(from) > MAX_HOURS) {
+            throw new CustomException("Stats range is limited to " + MAX_HOURS + " hours", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private static long hourOf(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), 3600);
+    }
+
+    private static Instant hourStart(Instant instant) {
+        return EPOCH.plus(hourOf(instant), ChronoUnit.HOURS);
+    }
+
+    private static Instant hourEnd(Instant instant) {
+        Instant start = hourStart(instant);
+        return start.equals(instant) ? start : start.plus(1, ChronoUnit.HOURS);
+    }
+
+    private static final class Totals {
+
+        private final LongAdder orders = new LongAdder();
+        private final LongAdder quantity = new LongAdder();
+        private final LongAdder revenue = new LongAdder();
+
+        void add(long orders, long quantity, long revenue) {
+            this.orders.add(orders);
+            this.quantity.add(quantity);
+            this.revenue.add(revenue);
+        }
+
+        StatTotals snapshot() {
+            return new StatTotals(orders.sum(), quantity.sum(), revenue.sum());
+        }
+    }
+
+    private static final class HourTotals {
+
+        private final Totals all = new Totals();
+        private final ConcurrentMap<Long, Totals> byProduct = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Payment_Mode, Totals> byPaymentMode = new ConcurrentHashMap<>();
+
+        // the hour total follows the product side so rows loaded per dimension are not counted twice
+        void addProduct(Long productId, long orders, long quantity, long revenue) {
+            all.add(orders, quantity, revenue);
+            byProduct.computeIfAbsent(productId, id -> new Totals()).add(orders, quantity, revenue);
+        }
+
+        void addPaymentMode(Payment_Mode paymentMode, long orders, long quantity, long revenue) {
+            if (paymentMode != null) {
+                byPaymentMode.computeIfAbsent(paymentMode, mode -> new Totals()).add(orders, quantity, revenue);
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.Tulip_Tech.OrderService.service;
+
+import com.Tulip_Tech.OrderService.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Fixed pool of workers that drains accepted orders. A slot is reserved before the order is
+ * persisted, so at most {@code order.async.max-pending} orders are queued or in progress and
+ * anything beyond that is turned away instead of piling up. The queue lives in memory only;
+ * orders it held when the instance stopped are picked up again by {@link PendingOrderRecovery}.
+ */
+@Component
+@Slf4j
+public class OrderWorkerPool {
+
+    private final int maxPending;
+    private final Semaphore slots;
+    private final ExecutorService workers;
+    private final Counter rejected;
+
+    public OrderWorkerPool(@Value("${order.async.workers:16}") int workerCount,
+                           @Value("${order.async.max-pending:1000}") int maxPending,
+                           MeterRegistry meterRegistry) {
+        this.maxPending = maxPending;
+        this.slots = new Semaphore(maxPending);
+        this.workers = Executors.newFixedThreadPool(workerCount, Thread.ofPlatform().name("order-worker-", 0).factory());
+        this.rejected = Counter.builder("order.async.rejected")
+                .description("Orders turned away because the pending queue was full or the workers were stopping")
+                .register(meterRegistry);
+        Gauge.builder("order.async.pending", this, OrderWorkerPool::pending)
+                .description("Accepted orders waiting for or being processed by a worker")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reserves a slot, runs {@code admission} on the caller thread and hands its result to
+     * {@code work} on a worker. The slot is freed when {@code work} ends or admission fails. If
+     * the workers no longer take work, e.g. during shutdown, the admitted item goes to
+     * {@code rejection} and the caller gets a 503.
+     */
+    public <T> T accept(Supplier<T> admission, Consumer<T> work, Consumer<T> rejection) {
+        if (!slots.tryAcquire()) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Order queue is full, try again later", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        T accepted;
+        try {
+            accepted = admission.get();
+        } catch (RuntimeException ex) {
+            slots.release();
+            throw ex;
+        }
+
+        try {
+            workers.execute(() -> {
+                try {
+                    work.accept(accepted);
+                } catch (Exception ex) {
+                    log.error("Worker failed for accepted order {}: {}", accepted, ex.getMessage());
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            slots.release();
+            rejected.increment();
+            try {
+                rejection.accept(accepted);
+            } catch (RuntimeException rejectionFailure) {
+                log.error("Could not settle rejected order {}: {}", accepted, rejectionFailure.getMessage());
+            }
+            throw new ServiceUnavailableException("Order workers are shutting down, try again later", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return accepted;
+    }
+
+    public int pending() {
+        return maxPending - slots.availablePermits();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Order workers still busy at shutdown, {} orders stay PENDING", pending());
+            workers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.Tulip_Tech.OrderService.service;
+
+import com.Tulip_Tech.OrderService.entity.OrderEntity;
+import com.Tulip_Tech.OrderService.entity.OrderSnapshot;
+import com.Tulip_Tech.OrderService.entity.PaymentOutboxEntity;
+import com.Tulip_Tech.OrderService.exception.ServiceUnavailableException;
+import com.Tulip_Tech.OrderService.model.OrdersPlacedEvent;
+import com.Tulip_Tech.OrderService.repository.OrderRepository;
+import com.Tulip_Tech.OrderService.repository.PaymentOutboxRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stores an order together with the payment request that has to follow it. Both rows commit
+ * in one transaction, so a crash can no longer leave a saved order without its payment;
+ * {@link PaymentOutboxDispatcher} delivers the payment afterwards. An {@link OrdersPlacedEvent}
+ * is published with the rows so {@link OrderStatsAggregator} can count them once they commit.
+ * <p>
+ * With {@code order.group-commit.enabled}, single orders from concurrent requests are queued
+ * and a committer thread writes whatever arrived within {@code window} (up to
+ * {@code max-batch}) in one transaction, so many requests share one commit. Ids come from the
+ * pooled sequence, so the rows go out as one batched insert. Each caller blocks until its
+ * batch has committed; if the batch fails, every caller in it gets the error.
+ * <p>
+ * Writes are bounded by {@code order.write-timeout}: it is the transaction timeout on both
+ * paths, and a queued write no committer has picked up within it is dropped. Either way the
+ * caller gets a 503 and nothing is written.
+ */
+@Component
+@Slf4j
+public class OrderWriter {
+
+    private static final String REFERENCE_NUMBER = "Me";
+
+    private final OrderRepository orderRepository;
+    private final PaymentOutboxRepository paymentOutboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration window;
+    private final int maxBatch;
+    private final Duration writeTimeout;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService committers;
+    private final DistributionSummary batchSize;
+    private volatile boolean running = true;
+
+    public OrderWriter(OrderRepository orderRepository,
+                       PaymentOutboxRepository paymentOutboxRepository,
+                       ApplicationEventPublisher eventPublisher,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${order.group-commit.enabled:false}") boolean groupCommit,
+                       @Value("${order.group-commit.window:500us}") Duration window,
+                       @Value("${order.group-commit.max-batch:64}") int maxBatch,
+                       @Value("${order.group-commit.committers:2}") int committerCount,
+                       @Value("${order.write-timeout:5s}") Duration writeTimeout) {
+        this.orderRepository = orderRepository;
+        this.paymentOutboxRepository = paymentOutboxRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setTimeout((int) Math.max(1, writeTimeout.toSeconds()));
+        this.window = window;
+        this.maxBatch = maxBatch;
+        this.writeTimeout = writeTimeout;
+        this.batchSize = DistributionSummary.builder("order.group-commit.batch.size")
+                .description("Orders written by one group commit")
+                .register(meterRegistry);
+        if (groupCommit) {
+            this.committers = Executors.newFixedThreadPool(committerCount, Thread.ofPlatform().name("order-committer-", 0).daemon().factory());
+            for (int i = 0; i < committerCount; i++) {
+                committers.execute(this::commitLoop);
+            }
+        } else {
+            this.committers = null;
+        }
+    }
+
+    public OrderEntity persistWithPayment(OrderEntity orderEntity) {
+        if (committers == null) {
+            persistInTransaction(List.of(orderEntity));
+            return orderEntity;
+        }
+
+        PendingWrite write = new PendingWrite(orderEntity, new CompletableFuture<>(), new AtomicBoolean());
+        if (!running) {
+            throw new ServiceUnavailableException("Order writer is shutting down", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        queue.add(write);
+        try {
+            write.committed().get(writeTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            if (write.claimed().compareAndSet(false, true)) {
+                queue.remove(write);
+                throw writeTimedOut();
+            }
+            // a committer already took it; its transaction runs under the same timeout
+            try {
+                write.committed().join();
+            } catch (CompletionException failed) {
+                throw failed.getCause() instanceof RuntimeException cause ? cause : failed;
+            }
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : new CompletionException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Order writer is shutting down", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return orderEntity;
+    }
+
+    /**
+     * Same as {@link #persistWithPayment} for many orders in one transaction; with
+     * {@code hibernate.jdbc.batch_size} and ordered inserts the rows go out as JDBC batches.
+     */
+    @Transactional
+    public List<OrderEntity> persistAllWithPayment(List<OrderEntity> orderEntities) {
+        persist(orderEntities);
+        return orderEntities;
+    }
+
+    private void commitLoop() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                // a caller that gave up has claimed its own write
+                if (first == null || !first.claimed().compareAndSet(false, true)) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + window.toNanos();
+                while (batch.size() < maxBatch) {
+                    PendingWrite next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    if (next.claimed().compareAndSet(false, true)) {
+                        batch.add(next);
+                    }
+                }
+                commit(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                fail(batch, new ServiceUnavailableException("Order writer is shutting down", HttpStatus.SERVICE_UNAVAILABLE));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingWrite> batch) {
+        List<OrderEntity> orderEntities = new ArrayList<>(batch.size());
+        batch.forEach(write -> orderEntities.add(write.orderEntity()));
+        batchSize.record(batch.size());
+        try {
+            persistInTransaction(orderEntities);
+        } catch (RuntimeException ex) {
+            log.error("Group commit of {} orders failed: {}", batch.size(), ex.getMessage());
+            fail(batch, ex);
+            return;
+        }
+        batch.forEach(write -> write.committed().complete(null));
+    }
+
+    private void persistInTransaction(List<OrderEntity> orderEntities) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(orderEntities));
+        } catch (TransactionTimedOutException | QueryTimeoutException ex) {
+            log.error("Writing {} orders timed out: {}", orderEntities.size(), ex.getMessage());
+            throw writeTimedOut();
+        }
+    }
+
+    private ServiceUnavailableException writeTimedOut() {
+        return new ServiceUnavailableException("Saving the order took longer than " + writeTimeout, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private static void fail(List<PendingWrite> batch, RuntimeException ex) {
+        batch.forEach(write -> write.committed().completeExceptionally(ex));
+    }
+
+    private void persist(List<OrderEntity> orderEntities) {
+        for (OrderEntity orderEntity : orderEntities) {
+            orderEntity.snapshot().setPaymentReference(REFERENCE_NUMBER);
+            orderEntity.snapshot().setPaymentStatus(OrderSnapshot.PAYMENT_PENDING);
+        }
+        orderRepository.saveAll(orderEntities);
+
+        Instant now = Instant.now();
+        List<PaymentOutboxEntity> payments = new ArrayList<>(orderEntities.size());
+        for (OrderEntity orderEntity : orderEntities) {
+            payments.add(PaymentOutboxEntity.builder()
+                    .orderId(orderEntity.getOrderId())
+                    .amount(orderEntity.getTotalAmount())
+                    .paymentMode(orderEntity.getPayment_mode())
+                    .referenceNumber(REFERENCE_NUMBER)
+                    .status(PaymentOutboxEntity.PENDING)
+                    .nextAttemptAt(now)
+                    .createdAt(now)
+                    .build());
+        }
+        paymentOutboxRepository.saveAll(payments);
+        eventPublisher.publishEvent(new OrdersPlacedEvent(List.copyOf(orderEntities)));
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (committers == null) {
+            return;
+        }
+        running = false;
+        committers.shutdown();
+        if (!committers.awaitTermination(10, TimeUnit.SECONDS)) {
+            committers.shutdownNow();
+        }
+        PendingWrite left;
+        while ((left = queue.poll()) != null) {
+            left.committed().completeExceptionally(new ServiceUnavailableException("Order writer is shutting down", HttpStatus.SERVICE_UNAVAILABLE));
+        }
+    }
+
+    private record PendingWrite(OrderEntity orderEntity, CompletableFuture<Void> committed, AtomicBoolean claimed) {
+    }
+}
@@ -0,0 +1,239 @@
+package com.Tulip_Tech.OrderService.service;
+
+import com.Tulip_Tech.OrderService.client.PaymentServiceClient;
+import com.Tulip_Tech.OrderService.entity.OrderEntity;
+import com.Tulip_Tech.OrderService.entity.OrderSnapshot;
+import com.Tulip_Tech.OrderService.entity.PaymentOutboxEntity;
+import com.Tulip_Tech.OrderService.exception.CustomException;
+import com.Tulip_Tech.OrderService.model.Dto.CreatePaymentRequest;
+import com.Tulip_Tech.OrderService.model.domain.Order;
+import com.Tulip_Tech.OrderService.repository.OrderRepository;
+import com.Tulip_Tech.OrderService.repository.PaymentOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers payment requests written by {@link OrderWriter}. Each poll locks a batch of due
+ * outbox rows with {@code SKIP LOCKED}, pushes their due time out by {@code claim-lease} and
+ * commits, so the rows stay claimed without holding locks during the HTTP calls. The batch is
+ * sent with bounded concurrency; failures are retried with exponential backoff until
+ * {@code max-attempts}, and 4xx answers are not retried at all. The outcome is copied into
+ * the order's {@link OrderSnapshot} so listings can show it without asking payment-service.
+ * Turned off with {@code payment.outbox.enabled=false}, e.g. where the database has no
+ * {@code SKIP LOCKED}.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.outbox.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class PaymentOutboxDispatcher {
+
+    private final PaymentOutboxRepository paymentOutboxRepository;
+    private final OrderRepository orderRepository;
+    private final PaymentServiceClient paymentServiceClient;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int concurrency;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Duration maxBackoff;
+    private final Duration claimLease;
+    private final OrderStageMetrics stageMetrics;
+
+    private final Counter dispatched;
+    private final Counter retried;
+    private final Counter failed;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public PaymentOutboxDispatcher(PaymentOutboxRepository paymentOutboxRepository,
+                                   OrderRepository orderRepository,
+                                   PaymentServiceClient paymentServiceClient,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   OrderStageMetrics stageMetrics,
+                                   @Value("${payment.outbox.batch-size:100}") int batchSize,
+                                   @Value("${payment.outbox.concurrency:8}") int concurrency,
+                                   @Value("${payment.outbox.max-attempts:10}") int maxAttempts,
+                                   @Value("${payment.outbox.backoff:1s}") Duration backoff,
+                                   @Value("${payment.outbox.max-backoff:5m}") Duration maxBackoff,
+                                   @Value("${payment.outbox.claim-lease:1m}") Duration claimLease) {
+        this.paymentOutboxRepository = paymentOutboxRepository;
+        this.orderRepository = orderRepository;
+        this.paymentServiceClient = paymentServiceClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+        this.maxBackoff = maxBackoff;
+        this.claimLease = claimLease;
+        this.stageMetrics = stageMetrics;
+
+        this.dispatched = Counter.builder("payment.outbox.dispatched")
+                .description("Payment requests delivered to payment-service")
+                .register(meterRegistry);
+        this.retried = Counter.builder("payment.outbox.retries")
+                .description("Failed deliveries scheduled for another attempt")
+                .register(meterRegistry);
+        this.failed = Counter.builder("payment.outbox.failed")
+                .description("Payment requests given up on")
+                .register(meterRegistry);
+        TimeGauge.builder("payment.outbox.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest payment request in the last claimed batch")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.outbox.poll-interval:500ms}")
+    public void dispatch() {
+        List<PaymentOutboxEntity> batch;
+        do {
+            batch = claim();
+            if (!batch.isEmpty()) {
+                deliver(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    List<PaymentOutboxEntity> claim() {
+        Instant now = Instant.now();
+        List<PaymentOutboxEntity> claimed = transactionTemplate.execute(status -> {
+            List<PaymentOutboxEntity> due = paymentOutboxRepository.lockDue(now, batchSize);
+            due.forEach(row -> row.setNextAttemptAt(now.plus(claimLease)));
+            return due;
+        });
+        if (claimed == null || claimed.isEmpty()) {
+            lagMillis.set(0);
+            return List.of();
+        }
+
+        Instant oldest = claimed.stream().map(PaymentOutboxEntity::getCreatedAt).min(Instant::compareTo).orElse(now);
+        lagMillis.set(Duration.between(oldest, now).toMillis());
+        return claimed;
+    }
+
+    void deliver(List<PaymentOutboxEntity> batch) {
+        List<Delivery> deliveries = Flux.fromIterable(batch)
+                .flatMap(row -> Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return paymentServiceClient.sendPayment(toPaymentRequest(row))
+                            .doOnSuccess(ignored -> stageMetrics.record(OrderStageMetrics.Stage.PAYMENT, start, true))
+                            .doOnError(ex -> stageMetrics.record(OrderStageMetrics.Stage.PAYMENT, start, false));
+                }).thenReturn(new Delivery(row, null))
+                        .onErrorResume(ex -> Mono.just(new Delivery(row, ex))), concurrency)
+                .collectList()
+                .block();
+
+        List<Long> done = new ArrayList<>(batch.size());
+        List<Long> paidOrderIds = new ArrayList<>(batch.size());
+        Set<Long> failedOrderIds = new HashSet<>();
+        List<PaymentOutboxEntity> undelivered = new ArrayList<>();
+        Instant now = Instant.now();
+        for (Delivery delivery : deliveries) {
+            PaymentOutboxEntity row = delivery.row();
+            if (delivery.error() == null) {
+                done.add(row.getId());
+                paidOrderIds.add(row.getOrderId());
+                continue;
+            }
+
+            row.setAttempts(row.getAttempts() + 1);
+            row.setLastError(String.valueOf(delivery.error().getMessage()));
+            if (isClientError(delivery.error()) || row.getAttempts() >= maxAttempts) {
+                log.error("Giving up on payment for orderId {} after {} attempts: {}", row.getOrderId(), row.getAttempts(), row.getLastError());
+                row.setStatus(PaymentOutboxEntity.FAILED);
+                failedOrderIds.add(row.getOrderId());
+                failed.increment();
+            } else {
+                log.warn("Payment for orderId {} failed, attempt {}: {}", row.getOrderId(), row.getAttempts(), row.getLastError());
+                row.setNextAttemptAt(now.plus(backoffFor(row.getAttempts())));
+                retried.increment();
+            }
+            undelivered.add(row);
+        }
+
+        Map<Long, Order.PaymentDetails> payments = paymentsOf(paidOrderIds);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!done.isEmpty()) {
+                paymentOutboxRepository.markDone(done);
+            }
+            if (!undelivered.isEmpty()) {
+                paymentOutboxRepository.saveAll(undelivered);
+            }
+            recordOutcome(paidOrderIds, failedOrderIds, payments, now);
+        });
+        dispatched.increment(done.size());
+    }
+
+    private Map<Long, Order.PaymentDetails> paymentsOf(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Map.of();
+        }
+        return paymentServiceClient.fetchPaymentsByOrderIds(orderIds)
+                .onErrorResume(ex -> {
+                    log.warn("Could not load details of {} delivered payments: {}", orderIds.size(), ex.getMessage());
+                    return Mono.just(Map.<Long, Order.PaymentDetails>of());
+                })
+                .defaultIfEmpty(Map.of())
+                .block();
+    }
+
+    private void recordOutcome(List<Long> paidOrderIds, Set<Long> failedOrderIds,
+                               Map<Long, Order.PaymentDetails> payments, Instant now) {
+        if (paidOrderIds.isEmpty() && failedOrderIds.isEmpty()) {
+            return;
+        }
+
+        List<Long> orderIds = new ArrayList<>(paidOrderIds);
+        orderIds.addAll(failedOrderIds);
+        for (OrderEntity orderEntity : orderRepository.findAllById(orderIds)) {
+            OrderSnapshot snapshot = orderEntity.snapshot();
+            Order.PaymentDetails payment = payments.get(orderEntity.getOrderId());
+            if (payment != null) {
+                snapshot.setPaymentId(payment.getId());
+                snapshot.setPaymentReference(payment.getReferenceNumber());
+                snapshot.setPaymentStatus(payment.getPaymentStatus());
+                snapshot.setPaymentDate(payment.getPaymentDate());
+            } else if (failedOrderIds.contains(orderEntity.getOrderId())) {
+                snapshot.setPaymentStatus(OrderSnapshot.PAYMENT_FAILED);
+            } else {
+                snapshot.setPaymentStatus(OrderSnapshot.PAYMENT_SUCCESS);
+                snapshot.setPaymentDate(now);
+            }
+        }
+    }
+
+    Duration backoffFor(int attempts) {
+        Duration delay = backoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static CreatePaymentRequest toPaymentRequest(PaymentOutboxEntity row) {
+        return new CreatePaymentRequest(row.getOrderId(), row.getAmount(), row.getPaymentMode(), row.getReferenceNumber());
+    }
+
+    private static boolean isClientError(Throwable ex) {
+        return ex instanceof CustomException customException && customException.getHttpStatus().is4xxClientError();
+    }
+
+    private record Delivery(PaymentOutboxEntity row, Throwable error) {
+    }
+}
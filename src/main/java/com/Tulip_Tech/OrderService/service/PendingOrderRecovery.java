@@ -0,0 +1,88 @@
+package com.Tulip_Tech.OrderService.service;
+
+import com.Tulip_Tech.OrderService.entity.OrderEntity;
+import com.Tulip_Tech.OrderService.exception.ServiceUnavailableException;
+import com.Tulip_Tech.OrderService.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Requeues async orders that stayed PENDING for longer than {@code stale-after}, which happens
+ * when the instance that accepted them stopped before a worker got to them. Each run locks a
+ * batch with {@code SKIP LOCKED} and moves their {@code order_date} to now before committing,
+ * so no other instance claims them again until another {@code stale-after} has passed.
+ * {@code stale-after} has to be longer than a full {@link OrderWorkerPool} queue takes to
+ * drain, or an order still waiting in a live queue is placed twice. Turned off with
+ * {@code order.async.recovery.enabled=false}, e.g. where the database has no {@code SKIP LOCKED}.
+ */
+@Component
+@ConditionalOnProperty(name = "order.async.recovery.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class PendingOrderRecovery {
+
+    private final OrderRepository orderRepository;
+    private final OrderServiceImpl orderService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration staleAfter;
+    private final int batchSize;
+    private final Counter recovered;
+
+    public PendingOrderRecovery(OrderRepository orderRepository,
+                                OrderServiceImpl orderService,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${order.async.recovery.stale-after:10m}") Duration staleAfter,
+                                @Value("${order.async.recovery.batch-size:100}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.staleAfter = staleAfter;
+        this.batchSize = batchSize;
+        this.recovered = Counter.builder("order.async.recovered")
+                .description("Stranded PENDING orders queued again")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${order.async.recovery.interval:1m}")
+    public void recover() {
+        List<OrderEntity> batch;
+        do {
+            batch = claim();
+            for (OrderEntity orderEntity : batch) {
+                try {
+                    orderService.resumePendingOrder(orderEntity);
+                    recovered.increment();
+                } catch (ServiceUnavailableException ex) {
+                    // the rest of the batch stays claimed and comes back after stale-after
+                    log.warn("Stopped recovering pending orders: {}", ex.getMessage());
+                    return;
+                }
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    List<OrderEntity> claim() {
+        Instant now = Instant.now();
+        List<OrderEntity> claimed = transactionTemplate.execute(status -> {
+            List<OrderEntity> stale = orderRepository.lockStalePending(now.minus(staleAfter), batchSize);
+            stale.forEach(orderEntity -> orderEntity.setOrderDate(now));
+            return stale;
+        });
+        if (claimed == null || claimed.isEmpty()) {
+            return List.of();
+        }
+        log.info("Recovering {} pending orders older than {}", claimed.size(), staleAfter);
+        return claimed;
+    }
+}
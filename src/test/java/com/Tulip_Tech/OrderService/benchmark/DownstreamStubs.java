@@ -0,0 +1,114 @@
+package com.Tulip_Tech.OrderService.benchmark;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformerV2;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * WireMock standing in for product-service and payment-service. Every stub answers after a
+ * log-normal delay and fails with a 503 at a configurable rate, so runs see a realistic tail
+ * rather than a constant latency. Settings are system properties, e.g.
+ * {@code -Dbenchmark.product.median-ms=20 -Dbenchmark.product.sigma=0.5 -Dbenchmark.product.error-rate=0.01};
+ * the same keys exist with {@code payment} in place of {@code product}.
+ */
+final class DownstreamStubs {
+
+    private static final String PRODUCT_JSON = "{\"id\":1,\"productName\":\"Product 1\",\"price\":200,\"quantity\":1000000}";
+    private static final String PAYMENT_JSON = "{\"id\":1,\"orderId\":1,\"paymentMode\":\"CASH\",\"referenceNumber\":\"Me\","
+            + "\"paymentStatus\":\"SUCCESS\",\"amount\":100}";
+
+    private final WireMockServer server;
+
+    private DownstreamStubs(WireMockServer server) {
+        this.server = server;
+    }
+
+    static DownstreamStubs start() {
+        WireMockServer server = new WireMockServer(options().dynamicPort()
+                .containerThreads(1_000)
+                .asynchronousResponseEnabled(true)
+                .asynchronousResponseThreads(64)
+                .extensions(new ErrorRateTransformer()));
+        server.start();
+
+        Profile product = Profile.of("product");
+        Profile payment = Profile.of("payment");
+        server.stubFor(get(urlPathMatching("/product/\\d+")).willReturn(product.apply(okJson(PRODUCT_JSON))));
+        server.stubFor(get(urlPathEqualTo("/product/batch")).willReturn(product.apply(okJson("[" + PRODUCT_JSON + "]"))));
+        server.stubFor(put(urlPathMatching("/product/reduceQuantity/\\d+")).willReturn(product.apply(ok())));
+        server.stubFor(post(urlPathEqualTo("/payment/doPayment")).willReturn(payment.apply(ok())));
+        server.stubFor(get(urlPathMatching("/payment/\\d+")).willReturn(payment.apply(okJson(PAYMENT_JSON))));
+        server.stubFor(get(urlPathEqualTo("/payment/batch")).willReturn(payment.apply(okJson("[" + PAYMENT_JSON + "]"))));
+        return new DownstreamStubs(server);
+    }
+
+    String productUrl() {
+        return server.baseUrl() + "/product/";
+    }
+
+    String paymentUrl() {
+        return server.baseUrl() + "/payment/";
+    }
+
+    void stop() {
+        server.stop();
+    }
+
+    private record Profile(double medianMillis, double sigma, double errorRate) {
+
+        static Profile of(String service) {
+            String prefix = "benchmark." + service + ".";
+            return new Profile(Double.parseDouble(System.getProperty(prefix + "median-ms", "20")),
+                    Double.parseDouble(System.getProperty(prefix + "sigma", "0.5")),
+                    Double.parseDouble(System.getProperty(prefix + "error-rate", "0.01")));
+        }
+
+        ResponseDefinitionBuilder apply(ResponseDefinitionBuilder response) {
+            return response.withLogNormalRandomDelay(medianMillis, sigma)
+                    .withTransformers(ErrorRateTransformer.NAME)
+                    .withTransformerParameter(ErrorRateTransformer.RATE, errorRate);
+        }
+    }
+
+    /**
+     * Replaces the stubbed answer with a 503 for the given share of requests.
+     */
+    static final class ErrorRateTransformer implements ResponseDefinitionTransformerV2 {
+
+        static final String NAME = "error-rate";
+        static final String RATE = "rate";
+
+        @Override
+        public ResponseDefinition transform(ServeEvent serveEvent) {
+            ResponseDefinition response = serveEvent.getResponseDefinition();
+            Parameters parameters = serveEvent.getTransformerParameters();
+            double rate = parameters.containsKey(RATE) ? ((Number) parameters.get(RATE)).doubleValue() : 0;
+            if (ThreadLocalRandom.current().nextDouble() >= rate) {
+                return response;
+            }
+            return ResponseDefinitionBuilder.like(response).but()
+                    .withStatus(503)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"errorCode\":\"UNAVAILABLE\",\"errorMessage\":\"injected failure\"}")
+                    .build();
+        }
+
+        @Override
+        public boolean applyGlobally() {
+            return false;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.Tulip_Tech.OrderService.benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Drives a request function and reports throughput and latency percentiles as one JSON line.
+ * Closed loop: a fixed number of users, each sending its next request when the previous one
+ * returns. Open loop: requests start on a fixed schedule regardless of how earlier ones fare,
+ * and latency is measured from the scheduled start, so a stall shows up in the percentiles
+ * instead of silently lowering the offered load.
+ */
+final class LoadGenerator {
+
+    private LoadGenerator() {
+    }
+
+    static Result closedLoop(String benchmark, int users, Duration duration, BooleanSupplier request) throws Exception {
+        AtomicInteger errors = new AtomicInteger();
+        List<Future<long[]>> perUser = new ArrayList<>(users);
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < users; i++) {
+                perUser.add(executor.submit(() -> {
+                    long[] latencies = new long[1_024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long sent = System.nanoTime();
+                        if (!call(request)) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - sent;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+
+            long[] all = new long[0];
+            for (Future<long[]> user : perUser) {
+                long[] latencies = user.get();
+                int offset = all.length;
+                all = Arrays.copyOf(all, offset + latencies.length);
+                System.arraycopy(latencies, 0, all, offset, latencies.length);
+            }
+            return Result.of(benchmark, "closed", all, errors.get(), System.nanoTime() - start);
+        }
+    }
+
+    static Result openLoop(String benchmark, double ratePerSecond, Duration duration, BooleanSupplier request) throws Exception {
+        int requests = (int) (ratePerSecond * duration.toMillis() / 1_000);
+        long interval = (long) (1_000_000_000L / ratePerSecond);
+        long[] latencies = new long[requests];
+        AtomicInteger errors = new AtomicInteger();
+        long start = System.nanoTime();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                int slot = i;
+                long scheduled = start + i * interval;
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                executor.execute(() -> {
+                    if (!call(request)) {
+                        errors.incrementAndGet();
+                    }
+                    latencies[slot] = System.nanoTime() - scheduled;
+                });
+            }
+        }
+        return Result.of(benchmark, "open", latencies, errors.get(), System.nanoTime() - start);
+    }
+
+    private static boolean call(BooleanSupplier request) {
+        try {
+            return request.getAsBoolean();
+        } catch (RuntimeException ex) {
+            return false;
+        }
+    }
+
+    record Result(String benchmark, String mode, int requests, int errors, double throughputPerSecond,
+                  double p50Millis, double p99Millis, double p999Millis) {
+
+        static Result of(String benchmark, String mode, long[] latencies, int errors, long elapsedNanos) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            return new Result(benchmark, mode, sorted.length, errors, sorted.length * 1_000_000_000.0 / elapsedNanos,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999));
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.clamp(index, 0, sorted.length - 1)] / 1_000_000.0;
+        }
+
+        String toJson() {
+            return String.format("{\"benchmark\":\"%s\",\"mode\":\"%s\",\"requests\":%d,\"errors\":%d,\"throughputPerSecond\":%.1f,"
+                            + "\"p50Millis\":%.2f,\"p99Millis\":%.2f,\"p999Millis\":%.2f}",
+                    benchmark, mode, requests, errors, throughputPerSecond, p50Millis, p99Millis, p999Millis);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.Tulip_Tech.OrderService.benchmark;
+
+import com.Tulip_Tech.OrderService.client.Hedger;
+import com.Tulip_Tech.OrderService.client.PaymentServiceClient;
+import com.Tulip_Tech.OrderService.client.ProductDetailsCache;
+import com.Tulip_Tech.OrderService.client.ProductServiceClient;
+import com.Tulip_Tech.OrderService.entity.OrderEntity;
+import com.Tulip_Tech.OrderService.mapper.OrderMapper;
+import com.Tulip_Tech.OrderService.model.Payment_Mode;
+import com.Tulip_Tech.OrderService.model.domain.Order;
+import com.Tulip_Tech.OrderService.service.OrderEnricher;
+import com.Tulip_Tech.OrderService.service.OrderStageMetrics;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round trips and wall time of listing enrichment against WireMock stubs with a fixed
+ * downstream latency: per-order calls (the old getAll) versus the batched {@link OrderEnricher}.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class OrderEnrichmentBenchmarkTest {
+
+    private static final int ORDERS = 2_000;
+    private static final int PRODUCTS = 200;
+    private static final int LATENCY_MS = 5;
+
+    private static WireMockServer wireMock;
+    private static ProductServiceClient productServiceClient;
+    private static PaymentServiceClient paymentServiceClient;
+
+    @BeforeAll
+    static void startStubs() {
+        wireMock = new WireMockServer(options().dynamicPort());
+        wireMock.start();
+
+        wireMock.stubFor(get(urlPathMatching("/product/\\d+"))
+                .willReturn(okJson(productJson(1)).withFixedDelay(LATENCY_MS)));
+        wireMock.stubFor(get(urlPathEqualTo("/product/batch"))
+                .willReturn(okJson(LongStream.rangeClosed(1, PRODUCTS).mapToObj(OrderEnrichmentBenchmarkTest::productJson)
+                        .collect(Collectors.joining(",", "[", "]"))).withFixedDelay(LATENCY_MS)));
+        wireMock.stubFor(get(urlPathMatching("/payment/\\d+"))
+                .willReturn(okJson(paymentJson(1)).withFixedDelay(LATENCY_MS)));
+        wireMock.stubFor(get(urlPathEqualTo("/payment/batch"))
+                .willReturn(okJson(LongStream.rangeClosed(1, ORDERS).mapToObj(OrderEnrichmentBenchmarkTest::paymentJson)
+                        .collect(Collectors.joining(",", "[", "]"))).withFixedDelay(LATENCY_MS)));
+
+        productServiceClient = new ProductServiceClient(WebClient.builder().baseUrl(wireMock.baseUrl() + "/product/").build(),
+                4, Duration.ofSeconds(5), Hedger.disabled("product-service"), CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(),
+                false, false);
+        paymentServiceClient = new PaymentServiceClient(WebClient.builder().baseUrl(wireMock.baseUrl() + "/payment/").build(),
+                4, Duration.ofSeconds(5), Hedger.disabled("payment-service"), CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults());
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        wireMock.stop();
+    }
+
+    @Test
+    void compare_per_order_calls_with_batched_enrichment() {
+        List<OrderEntity> orderEntities = LongStream.rangeClosed(1, ORDERS)
+                .mapToObj(id -> new OrderEntity(id, id % PRODUCTS + 1, 1L, "CREATED", Instant.now(), 100L, Payment_Mode.CASH, null))
+                .toList();
+
+        wireMock.resetRequests();
+        long start = System.nanoTime();
+        orderEntities.parallelStream().forEach(orderEntity -> {
+            productServiceClient.getProductById(orderEntity.getProductId());
+            paymentServiceClient.getPaymentByOrderId(orderEntity.getOrderId());
+        });
+        long perOrderMillis = (System.nanoTime() - start) / 1_000_000;
+        int perOrderRoundTrips = wireMock.getAllServeEvents().size();
+
+        ProductDetailsCache productDetailsCache = new ProductDetailsCache(productServiceClient, new SimpleMeterRegistry(),
+                10_000, Duration.ofMinutes(10), Duration.ofMinutes(2), Duration.ofSeconds(30));
+        OrderEnricher orderEnricher = new OrderEnricher(productDetailsCache, paymentServiceClient, new OrderMapper(), Duration.ofSeconds(10),
+                new OrderStageMetrics(new SimpleMeterRegistry()));
+        wireMock.resetRequests();
+        start = System.nanoTime();
+        List<Order> orders = orderEnricher.enrich(orderEntities);
+        long batchedMillis = (System.nanoTime() - start) / 1_000_000;
+        int batchedRoundTrips = wireMock.getAllServeEvents().size();
+
+        System.out.printf("{\"benchmark\":\"enrichment\",\"orders\":%d,\"products\":%d,"
+                        + "\"perOrder\":{\"roundTrips\":%d,\"wallMillis\":%d},"
+                        + "\"batched\":{\"roundTrips\":%d,\"wallMillis\":%d}}%n",
+                ORDERS, PRODUCTS, perOrderRoundTrips, perOrderMillis, batchedRoundTrips, batchedMillis);
+
+        assertEquals(ORDERS, orders.size());
+        assertEquals(2 * ORDERS, perOrderRoundTrips);
+        assertTrue(batchedRoundTrips <= 12, "Expected 2 product chunks and 10 payment chunks at most");
+    }
+
+    private static String productJson(long id) {
+        return "{\"id\":" + id + ",\"productName\":\"Product " + id + "\",\"price\":200,\"quantity\":150}";
+    }
+
+    private static String paymentJson(long orderId) {
+        return "{\"id\":" + orderId + ",\"orderId\":" + orderId + ",\"paymentMode\":\"CASH\","
+                + "\"referenceNumber\":\"ref" + orderId + "\",\"paymentStatus\":\"SUCCESS\",\"amount\":100}";
+    }
+}
@@ -0,0 +1,147 @@
+package com.Tulip_Tech.OrderService.benchmark;
+
+import com.Tulip_Tech.OrderService.model.Dto.OrderSearchCriteria;
+import com.Tulip_Tech.OrderService.model.Dto.OrderSummary;
+import com.Tulip_Tech.OrderService.model.Payment_Mode;
+import com.Tulip_Tech.OrderService.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Query plans and latency of {@link OrderRepository#search} on a MySQL container seeded with
+ * 1M orders. The EXPLAINed statements are the SQL Hibernate emits for each filter shape, so a
+ * missing or unused composite index shows up as a full scan or a filesort. Needs Docker; run
+ * with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Testcontainers
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create",
+        "spring.jpa.show-sql=false",
+        "spring.cloud.config.enabled=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OrderSearchPlanBenchmarkTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final int PAGE_SIZE = 50;
+    private static final int PAGES_PER_SHAPE = 200;
+    private static final Instant FROM = Instant.parse("2024-03-01T00:00:00Z");
+    private static final Instant TO = Instant.parse("2024-04-01T00:00:00Z");
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.4");
+
+    private static boolean seeded;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        if (seeded) {
+            return;
+        }
+        // one row every 30 seconds from 2024-01-01, 1000 products, 3 statuses, 8 payment modes
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("set session cte_max_recursion_depth = " + ROWS);
+                statement.execute("insert into orders_tbl (order_id, product_id, quantity, order_status, order_date, total_amount, payment_mode) "
+                        + "with recursive seq (n) as (select 1 union all select n + 1 from seq where n < " + ROWS + ") "
+                        + "select n, n % 1000 + 1, n % 5 + 1, elt(n % 3 + 1, 'CREATED', 'PENDING', 'FAILED'), "
+                        + "timestampadd(second, n * 30, '2024-01-01 00:00:00'), (n % 500) * 10, "
+                        + "elt(n % 8 + 1, 'CASH', 'BKASH', 'NAGAD', 'ROCKET', 'VISA_CARD', 'MASTER_CARD', 'DEBIT_CARD', 'CREDIT_CARD') "
+                        + "from seq");
+                statement.execute("analyze table orders_tbl");
+            }
+            return null;
+        });
+        seeded = true;
+    }
+
+    @Test
+    void every_filter_shape_uses_its_index_without_filesort() {
+        Map<String, String> expectedIndexByWhere = new LinkedHashMap<>();
+        expectedIndexByWhere.put("o.order_status = 'PENDING'", "idx_orders_status_date");
+        expectedIndexByWhere.put("o.order_status = 'CREATED' and o.order_date >= '2024-03-01' and o.order_date < '2024-04-01'", "idx_orders_status_date");
+        expectedIndexByWhere.put("o.product_id = 42 and o.order_date >= '2024-03-01' and o.order_date < '2024-04-01'", "idx_orders_product_date");
+        expectedIndexByWhere.put("o.payment_mode = 'BKASH'", "idx_orders_payment_mode_date");
+        expectedIndexByWhere.put("o.order_date >= '2024-03-01' and o.order_date < '2024-04-01'", "idx_orders_date");
+        expectedIndexByWhere.put("o.order_status = 'CREATED' and o.order_date >= '2024-03-10 12:00:00' "
+                + "and (o.order_date > '2024-03-10 12:00:00' or o.order_id > 200000)", "idx_orders_status_date");
+
+        expectedIndexByWhere.forEach((where, index) -> {
+            Map<String, Object> plan = jdbcTemplate.queryForMap("explain select o.order_id, o.product_id, o.quantity, o.order_status, "
+                    + "o.order_date, o.total_amount, o.payment_mode from orders_tbl o where " + where
+                    + " order by o.order_date, o.order_id limit " + PAGE_SIZE);
+            System.out.printf("{\"benchmark\":\"searchPlan\",\"where\":\"%s\",\"key\":\"%s\",\"type\":\"%s\",\"rows\":%s,\"extra\":\"%s\"}%n",
+                    where.replace("'", ""), plan.get("key"), plan.get("type"), plan.get("rows"), plan.get("Extra"));
+
+            assertEquals(index, plan.get("key"), where);
+            assertNotEquals("ALL", plan.get("type"), where);
+            assertFalse(String.valueOf(plan.get("Extra")).contains("filesort"), where);
+        });
+    }
+
+    @Test
+    void keyset_pages_stay_fast_deep_into_the_result() {
+        Map<String, OrderSearchCriteria> shapes = new LinkedHashMap<>();
+        shapes.put("status", new OrderSearchCriteria("PENDING", null, null, null, null, null, null));
+        shapes.put("statusAndRange", new OrderSearchCriteria("CREATED", null, null, FROM, TO, null, null));
+        shapes.put("productAndRange", new OrderSearchCriteria(null, 42L, null, FROM, TO, null, null));
+        shapes.put("paymentMode", new OrderSearchCriteria(null, null, Payment_Mode.BKASH, null, null, null, null));
+        shapes.put("range", new OrderSearchCriteria(null, null, null, FROM, TO, null, null));
+
+        shapes.forEach((name, first) -> {
+            long[] latencies = new long[PAGES_PER_SHAPE];
+            OrderSearchCriteria criteria = first;
+            int pages = 0;
+            while (pages < PAGES_PER_SHAPE) {
+                long start = System.nanoTime();
+                List<OrderSummary> page = orderRepository.search(criteria, PAGE_SIZE);
+                latencies[pages++] = System.nanoTime() - start;
+                if (page.size() < PAGE_SIZE) {
+                    break;
+                }
+                OrderSummary last = page.getLast();
+                criteria = new OrderSearchCriteria(first.status(), first.productId(), first.paymentMode(), first.from(), first.to(),
+                        last.orderDate(), last.orderId());
+            }
+
+            long[] measured = Arrays.copyOf(latencies, pages);
+            Arrays.sort(measured);
+            double p50 = measured[measured.length / 2] / 1_000_000.0;
+            double p99 = measured[Math.max(0, (int) (measured.length * 0.99) - 1)] / 1_000_000.0;
+            System.out.printf("{\"benchmark\":\"searchLatency\",\"shape\":\"%s\",\"rows\":%d,\"pages\":%d,\"p50Millis\":%.2f,\"p99Millis\":%.2f}%n",
+                    name, ROWS, pages, p50, p99);
+
+            assertTrue(p99 < 50, name + " p99 " + p99 + "ms");
+        });
+    }
+}
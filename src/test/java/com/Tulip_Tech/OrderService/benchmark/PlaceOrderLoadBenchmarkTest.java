@@ -0,0 +1,94 @@
+package com.Tulip_Tech.OrderService.benchmark;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end load on the running service: embedded H2 in MySQL mode, WireMock downstreams with
+ * latency and error distributions ({@link DownstreamStubs}), HTTP clients driving
+ * {@code /order/placeOrder} and {@code /order}. Each run prints one JSON line per scenario with
+ * throughput and p50/p99/p999, meant to be kept as the baseline of a release. Run with
+ * {@code mvn test -Pbenchmark}; {@code -Dbenchmark.duration=30s}, {@code -Dbenchmark.users} and
+ * {@code -Dbenchmark.rate} change the load.
+ */
+@Tag("benchmark")
+@ActiveProfiles("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class PlaceOrderLoadBenchmarkTest {
+
+    private static final Duration DURATION = Duration.parse("PT" + System.getProperty("benchmark.duration", "10s"));
+    private static final int USERS = Integer.getInteger("benchmark.users", 64);
+    private static final double RATE = Double.parseDouble(System.getProperty("benchmark.rate", "500"));
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+    private static final String ORDER_JSON = "{\"productId\":1,\"quantity\":1,\"totalAmount\":200,\"payment_mode\":\"CASH\"}";
+
+    private static final DownstreamStubs stubs = DownstreamStubs.start();
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void downstreams(DynamicPropertyRegistry registry) {
+        registry.add("product.service.url", stubs::productUrl);
+        registry.add("payment.service.url", stubs::paymentUrl);
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        stubs.stop();
+    }
+
+    @Test
+    void place_and_list_orders() throws Exception {
+        HttpRequest placeOrder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/order/placeOrder"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(ORDER_JSON))
+                .build();
+        HttpRequest listOrders = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/order?size=50")).GET().build();
+
+        LoadGenerator.closedLoop("warmup", USERS, WARMUP, () -> send(placeOrder));
+
+        List<LoadGenerator.Result> results = List.of(
+                LoadGenerator.closedLoop("placeOrder", USERS, DURATION, () -> send(placeOrder)),
+                LoadGenerator.openLoop("placeOrder", RATE, DURATION, () -> send(placeOrder)),
+                LoadGenerator.closedLoop("listOrders", USERS, DURATION, () -> send(listOrders)),
+                LoadGenerator.openLoop("listOrders", RATE, DURATION, () -> send(listOrders)));
+        results.forEach(result -> System.out.println(result.toJson()));
+
+        results.forEach(result -> assertTrue(result.errors() < result.requests(), result.benchmark() + " " + result.mode() + " never succeeded"));
+    }
+
+    private boolean send(HttpRequest request) {
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() / 100 == 2;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
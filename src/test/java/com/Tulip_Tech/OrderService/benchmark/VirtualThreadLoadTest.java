@@ -0,0 +1,242 @@
+package com.Tulip_Tech.OrderService.benchmark;
+
+import com.Tulip_Tech.OrderService.client.Hedger;
+import com.Tulip_Tech.OrderService.client.InventoryLeases;
+import com.Tulip_Tech.OrderService.client.ProductDetailsCache;
+import com.Tulip_Tech.OrderService.client.ProductServiceClient;
+import com.Tulip_Tech.OrderService.client.ReduceQuantityCoalescer;
+import com.Tulip_Tech.OrderService.entity.OrderEntity;
+import com.Tulip_Tech.OrderService.mapper.OrderMapper;
+import com.Tulip_Tech.OrderService.model.Dto.CreateOrderRequest;
+import com.Tulip_Tech.OrderService.model.Payment_Mode;
+import com.Tulip_Tech.OrderService.repository.OrderRepository;
+import com.Tulip_Tech.OrderService.service.OrderServiceImpl;
+import com.Tulip_Tech.OrderService.service.OrderStageMetrics;
+import com.Tulip_Tech.OrderService.service.OrderWriter;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.consumer.RecordingStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+/**
+ * Throughput and p99 of the blocking placement path (reduceQuantity, then the order and outbox
+ * write) on a 200-thread platform pool, the Tomcat default, versus one virtual thread per request,
+ * with WireMock standing in for product-service. The order and outbox rows go through a Hikari
+ * pool and the MySQL driver into a container, the path where a driver still using monitors would
+ * pin carrier threads; every {@code jdk.VirtualThreadPinned} event recorded during the virtual run
+ * fails the test. Needs Docker; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Testcontainers
+public class VirtualThreadLoadTest {
+
+    private static final int REQUESTS = 4_000;
+    private static final int DOWNSTREAM_LATENCY_MS = 20;
+    private static final int PLATFORM_THREADS = 200;
+    private static final int DB_POOL_SIZE = 30;
+
+    @Container
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.4");
+
+    private static WireMockServer wireMock;
+    private static HikariDataSource dataSource;
+    private static OrderServiceImpl orderService;
+
+    @BeforeAll
+    static void startStubs() throws Exception {
+        wireMock = new WireMockServer(options().dynamicPort()
+                .containerThreads(1_200)
+                .asynchronousResponseEnabled(true)
+                .asynchronousResponseThreads(64));
+        wireMock.start();
+        wireMock.stubFor(put(urlPathMatching("/product/reduceQuantity/\\d+"))
+                .willReturn(ok().withFixedDelay(DOWNSTREAM_LATENCY_MS)));
+
+        // the default reactor-netty pool (16 connections, 32 pending) would cap both modes alike
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("load-test")
+                .maxConnections(1_000)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        WebClient.Builder builder = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)));
+
+        OrderRepository orderRepository = mock(OrderRepository.class, withSettings().stubOnly());
+
+        // same pool bound as spring.datasource.hikari.maximum-pool-size
+        HikariConfig hikari = new HikariConfig();
+        hikari.setJdbcUrl(mysql.getJdbcUrl());
+        hikari.setUsername(mysql.getUsername());
+        hikari.setPassword(mysql.getPassword());
+        hikari.setMaximumPoolSize(DB_POOL_SIZE);
+        hikari.setConnectionTimeout(Duration.ofSeconds(30).toMillis());
+        dataSource = new HikariDataSource(hikari);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table orders_tbl (order_id bigint auto_increment primary key, product_id bigint, "
+                    + "quantity bigint, order_status varchar(32), order_date datetime(6), total_amount bigint, payment_mode varchar(32))");
+            statement.execute("create table payment_outbox (id bigint auto_increment primary key, order_id bigint, "
+                    + "amount bigint, payment_mode varchar(32), created_at datetime(6))");
+        }
+
+        // the order and its payment row in one transaction, as OrderWriter does it
+        OrderWriter orderWriter = mock(OrderWriter.class, withSettings().stubOnly());
+        when(orderWriter.persistWithPayment(any(OrderEntity.class))).thenAnswer(invocation -> {
+            OrderEntity order = invocation.getArgument(0);
+            persist(order);
+            return order;
+        });
+
+        orderService = new OrderServiceImpl(
+                orderRepository,
+                // zero window: every order makes its own PUT, so only the threading model differs
+                new ReduceQuantityCoalescer(
+                        new ProductServiceClient(builder.clone().baseUrl(wireMock.baseUrl() + "/product/").build(), 4, Duration.ofSeconds(10),
+                                Hedger.disabled("product-service"), CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(),
+                                false, false),
+                        new SimpleMeterRegistry(), Duration.ZERO, 1, Duration.ofSeconds(10)),
+                mock(ProductDetailsCache.class, withSettings().stubOnly()),
+                new OrderMapper(),
+                orderWriter,
+                null,
+                null,
+                null,
+                InventoryLeases.disabled(),
+                new OrderStageMetrics(new SimpleMeterRegistry()));
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        wireMock.stop();
+        dataSource.close();
+    }
+
+    @Test
+    void compare_platform_and_virtual_threads() throws Exception {
+        Result platform = run("platform", Executors.newFixedThreadPool(PLATFORM_THREADS));
+
+        LongAdder pinned = new LongAdder();
+        Result virtual;
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", event -> {
+                pinned.increment();
+                System.out.println(event);
+            });
+            recording.startAsync();
+            virtual = run("virtual", Executors.newVirtualThreadPerTaskExecutor());
+        }
+
+        System.out.println(platform.toJson());
+        System.out.println(virtual.toJson());
+        System.out.printf("{\"benchmark\":\"placeOrder\",\"mode\":\"virtual\",\"pinnedEvents\":%d}%n", pinned.sum());
+
+        assertEquals(0, platform.failures());
+        assertEquals(0, virtual.failures());
+        assertEquals(0, pinned.sum(), "Virtual threads were pinned to their carrier; the stacks are printed above");
+        assertTrue(virtual.throughputPerSecond() > platform.throughputPerSecond(),
+                "Virtual threads should not be capped by the platform pool size");
+    }
+
+    private static void persist(OrderEntity order) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insertOrder = connection.prepareStatement("insert into orders_tbl (product_id, quantity, "
+                    + "order_status, order_date, total_amount, payment_mode) values (?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement insertPayment = connection.prepareStatement("insert into payment_outbox (order_id, amount, "
+                         + "payment_mode, created_at) values (?, ?, ?, ?)")) {
+                Timestamp now = Timestamp.from(Instant.now());
+                insertOrder.setLong(1, order.getProductId());
+                insertOrder.setLong(2, order.getQuantity());
+                insertOrder.setString(3, order.getOrderStatus());
+                insertOrder.setTimestamp(4, now);
+                insertOrder.setLong(5, order.getTotalAmount());
+                insertOrder.setString(6, String.valueOf(order.getPayment_mode()));
+                insertOrder.executeUpdate();
+                long orderId;
+                try (var keys = insertOrder.getGeneratedKeys()) {
+                    keys.next();
+                    orderId = keys.getLong(1);
+                }
+                insertPayment.setLong(1, orderId);
+                insertPayment.setLong(2, order.getTotalAmount());
+                insertPayment.setString(3, String.valueOf(order.getPayment_mode()));
+                insertPayment.setTimestamp(4, now);
+                insertPayment.executeUpdate();
+                connection.commit();
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private Result run(String mode, ExecutorService executor) throws Exception {
+        CreateOrderRequest request = new CreateOrderRequest(1L, 1L, 100L, Payment_Mode.CASH);
+        long[] latencies = new long[REQUESTS];
+        Future<?>[] futures = new Future<?>[REQUESTS];
+        AtomicInteger failures = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (executor) {
+            for (int i = 0; i < REQUESTS; i++) {
+                int slot = i;
+                long submitted = System.nanoTime();
+                futures[i] = executor.submit(() -> {
+                    if (!orderService.placeOrder(request).getStatusCode().is2xxSuccessful()) {
+                        failures.incrementAndGet();
+                    }
+                    latencies[slot] = System.nanoTime() - submitted;
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new Result(mode, failures.get(), REQUESTS * 1_000_000_000.0 / elapsed,
+                latencies[REQUESTS / 2] / 1_000_000.0,
+                latencies[(int) (REQUESTS * 0.99) - 1] / 1_000_000.0);
+    }
+
+    private record Result(String mode, int failures, double throughputPerSecond, double p50Millis, double p99Millis) {
+
+        String toJson() {
+            return String.format("{\"benchmark\":\"placeOrder\",\"mode\":\"%s\",\"failures\":%d,\"throughputPerSecond\":%.1f,"
+                    + "\"p50Millis\":%.2f,\"p99Millis\":%.2f}", mode, failures, throughputPerSecond, p50Millis, p99Millis);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.Tulip_Tech.OrderService.benchmark.jmh;
+
+import com.Tulip_Tech.OrderService.model.Dto.CreateOrderRequest;
+import com.Tulip_Tech.OrderService.model.Payment_Mode;
+import com.Tulip_Tech.OrderService.service.IdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost of {@link IdempotencyStore#execute} on its three paths: a duplicate answered from memory,
+ * a duplicate answered from the table after the key left memory, and a first request, which
+ * claims and completes the key in the table. The table lives in an in-memory H2 database, so the
+ * database paths show the store's own overhead rather than network round trips. Run with
+ * {@code mvn test -Pjmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdempotencyStoreBenchmark {
+
+    private static final CreateOrderRequest REQUEST = new CreateOrderRequest(1L, 2L, 2000L, Payment_Mode.CASH);
+    private static final ResponseEntity<?> PLACED = ResponseEntity.ok(42L);
+
+    private final AtomicLong keys = new AtomicLong();
+    private IdempotencyStore memoryStore;
+    private IdempotencyStore databaseStore;
+
+    @Setup
+    public void setUp() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:idempotency;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("create table if not exists idempotency_key_tbl (idempotency_key varchar(128) primary key, "
+                + "request_hash varchar(64) not null, status int, body varchar(4000), created_at timestamp(6) not null)");
+        jdbcTemplate.execute("delete from idempotency_key_tbl");
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        memoryStore = new IdempotencyStore(jdbcTemplate, objectMapper, new SimpleMeterRegistry(),
+                100_000, Duration.ofHours(24), Duration.ofSeconds(30), Duration.ofMinutes(2));
+        // nothing stays in memory, every duplicate goes to the table
+        databaseStore = new IdempotencyStore(jdbcTemplate, objectMapper, new SimpleMeterRegistry(),
+                0, Duration.ofHours(24), Duration.ofSeconds(30), Duration.ofMinutes(2));
+
+        memoryStore.execute("duplicate", REQUEST, () -> PLACED);
+    }
+
+    @Benchmark
+    public Object duplicateFromMemory() {
+        return memoryStore.execute("duplicate", REQUEST, () -> PLACED);
+    }
+
+    @Benchmark
+    public Object duplicateFromDatabase() {
+        return databaseStore.execute("duplicate", REQUEST, () -> PLACED);
+    }
+
+    @Benchmark
+    public Object firstRequest() {
+        return memoryStore.execute("key-" + keys.incrementAndGet(), REQUEST, () -> PLACED);
+    }
+}
@@ -0,0 +1,68 @@
+package com.Tulip_Tech.OrderService.benchmark.jmh;
+
+import com.Tulip_Tech.OrderService.entity.OrderEntity;
+import com.Tulip_Tech.OrderService.entity.OrderSnapshot;
+import com.Tulip_Tech.OrderService.mapper.OrderMapper;
+import com.Tulip_Tech.OrderService.model.Dto.CreateOrderRequest;
+import com.Tulip_Tech.OrderService.model.Payment_Mode;
+import com.Tulip_Tech.OrderService.model.domain.Order;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.BeanUtils;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost and allocation of mapping one order in each direction, as done for every listed order
+ * and every placed order, next to the {@code BeanUtils.copyProperties} version the mapper
+ * used before. Run with {@code mvn test -Pjmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderMapperBenchmark {
+
+    private final OrderMapper orderMapper = new OrderMapper();
+    private OrderEntity orderEntity;
+    private CreateOrderRequest createOrderRequest;
+
+    @Setup
+    public void setUp() {
+        OrderSnapshot snapshot = new OrderSnapshot("Mouse", 200L, 9L, "Me", OrderSnapshot.PAYMENT_SUCCESS, Instant.now());
+        orderEntity = new OrderEntity(1L, 2L, 3L, "CREATED", Instant.now(), 600L, Payment_Mode.CASH, snapshot);
+        createOrderRequest = new CreateOrderRequest(2L, 3L, 600L, Payment_Mode.CASH);
+    }
+
+    @Benchmark
+    public Order entityToOrder() {
+        return orderMapper.EntityToOrder(orderEntity);
+    }
+
+    @Benchmark
+    public OrderEntity createOrderEntity() {
+        return orderMapper.createOrderEntity(createOrderRequest);
+    }
+
+    @Benchmark
+    public Order entityToOrderBeanUtils() {
+        Order order = new Order();
+        BeanUtils.copyProperties(orderEntity, order);
+        OrderSnapshot snapshot = orderEntity.getSnapshot();
+        order.setProductDetails(new Order.ProductDetails(orderEntity.getProductId(), snapshot.getProductName(), snapshot.getProductPrice(), 0L));
+        order.setPaymentDetails(new Order.PaymentDetails(snapshot.getPaymentId(), orderEntity.getOrderId(), orderEntity.getPayment_mode(),
+                snapshot.getPaymentReference(), snapshot.getPaymentDate(), snapshot.getPaymentStatus(), orderEntity.getTotalAmount()));
+        return order;
+    }
+
+    @Benchmark
+    public OrderEntity createOrderEntityBeanUtils() {
+        OrderEntity entity = new OrderEntity();
+        BeanUtils.copyProperties(createOrderRequest, entity);
+        entity.setOrderStatus("CREATED");
+        entity.setOrderDate(Instant.now());
+        return entity;
+    }
+}
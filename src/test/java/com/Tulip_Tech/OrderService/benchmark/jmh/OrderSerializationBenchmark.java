@@ -0,0 +1,52 @@
+package com.Tulip_Tech.OrderService.benchmark.jmh;
+
+import com.Tulip_Tech.OrderService.model.Dto.CursorPage;
+import com.Tulip_Tech.OrderService.model.Payment_Mode;
+import com.Tulip_Tech.OrderService.model.domain.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of an order listing page (orders with nested product and payment
+ * details) for several page sizes, with the mapper configured like Spring Boot's. Run with
+ * {@code mvn test -Pjmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderSerializationBenchmark {
+
+    @Param({"1", "50", "200", "1000"})
+    public int size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private CursorPage<Order> page;
+
+    @Setup
+    public void setUp() {
+        Instant now = Instant.now();
+        List<Order> orders = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            orders.add(new Order(id, id % 100, 3L, now, 600L, Payment_Mode.CASH,
+                    new Order.ProductDetails(id % 100, "Product " + id % 100, 200L, 0L),
+                    new Order.PaymentDetails(id, id, Payment_Mode.CASH, "Me", now, "SUCCESS", 600L)));
+        }
+        page = new CursorPage<>(orders, (long) size);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
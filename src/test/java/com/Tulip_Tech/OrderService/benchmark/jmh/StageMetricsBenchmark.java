@@ -0,0 +1,55 @@
+package com.Tulip_Tech.OrderService.benchmark.jmh;
+
+import com.Tulip_Tech.OrderService.service.OrderStageMetrics;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of {@link OrderStageMetrics} per recorded stage against the same step untimed. The
+ * step is a few hundred nanoseconds of work, about what the mapper stage costs, and recording
+ * goes into a Prometheus registry with percentile histograms as in production. Run with four
+ * threads to include contention on the histogram buckets; no tracer is attached, so exemplar
+ * sampling is not part of the number. Run with {@code mvn test -Pjmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class StageMetricsBenchmark {
+
+    private static final int WORK_TOKENS = 50;
+
+    private OrderStageMetrics stageMetrics;
+
+    @Setup
+    public void setUp() {
+        stageMetrics = new OrderStageMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+    }
+
+    @Benchmark
+    public long untimed() {
+        return step();
+    }
+
+    @Benchmark
+    public long timed() {
+        return stageMetrics.time(OrderStageMetrics.Stage.MAPPER, StageMetricsBenchmark::step);
+    }
+
+    @Benchmark
+    public void enrichmentTimer() {
+        stageMetrics.recordEnrichment("product", System.nanoTime(), "success");
+    }
+
+    private static long step() {
+        Blackhole.consumeCPU(WORK_TOKENS);
+        return WORK_TOKENS;
+    }
+}
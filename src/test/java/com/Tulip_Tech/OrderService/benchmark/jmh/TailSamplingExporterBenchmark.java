@@ -0,0 +1,109 @@
+package com.Tulip_Tech.OrderService.benchmark.jmh;
+
+import com.Tulip_Tech.OrderService.config.TailSamplingSpanExporter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cost of recording and exporting one placeOrder-shaped trace (a root and three client spans),
+ * exported as is ({@code direct}) and through {@link TailSamplingSpanExporter} ({@code tailSampled}).
+ * The exporter at the end only counts spans, so the numbers are the sampler's own overhead, not
+ * what it saves on Zipkin; the kept fraction printed at tear down is what shrinks that side.
+ * About one trace in a hundred fails. Run with {@code mvn test -Pjmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class TailSamplingExporterBenchmark {
+
+    private static final String[] CHILDREN = {"fetchProductById", "reduceQuantity", "sendPayment"};
+
+    private final CountingExporter directSink = new CountingExporter();
+    private final CountingExporter sampledSink = new CountingExporter();
+    private final LongAdder traces = new LongAdder();
+    private SdkTracerProvider directProvider;
+    private SdkTracerProvider sampledProvider;
+    private Tracer direct;
+    private Tracer sampled;
+
+    @Setup
+    public void setUp() {
+        directProvider = SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(directSink)).build();
+        TailSamplingSpanExporter exporter = new TailSamplingSpanExporter(sampledSink, Duration.ofMillis(500), 10,
+                Duration.ofSeconds(10), 10_000, new SimpleMeterRegistry());
+        sampledProvider = SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(exporter)).build();
+        direct = directProvider.get("benchmark");
+        sampled = sampledProvider.get("benchmark");
+    }
+
+    @TearDown
+    public void tearDown() {
+        directProvider.shutdown().join(10, TimeUnit.SECONDS);
+        sampledProvider.shutdown().join(10, TimeUnit.SECONDS);
+        System.out.printf("%ntail sampling kept %d of %d spans%n", sampledSink.spans.sum(), traces.sum() * (CHILDREN.length + 1));
+    }
+
+    @Benchmark
+    public void direct() {
+        trace(direct);
+    }
+
+    @Benchmark
+    public void tailSampled() {
+        traces.increment();
+        trace(sampled);
+    }
+
+    private static void trace(Tracer tracer) {
+        Span root = tracer.spanBuilder("http post /order/placeOrder").setAttribute("uri", "/order/placeOrder").startSpan();
+        Context parent = Context.current().with(root);
+        boolean fail = (root.getSpanContext().getTraceIdBytes()[15] & 0xff) < 3;
+        for (String name : CHILDREN) {
+            Span child = tracer.spanBuilder(name).setParent(parent).startSpan();
+            if (fail) {
+                child.setStatus(StatusCode.ERROR);
+            }
+            child.end();
+        }
+        root.end();
+    }
+
+    private static final class CountingExporter implements SpanExporter {
+
+        private final LongAdder spans = new LongAdder();
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> batch) {
+            spans.add(batch.size());
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
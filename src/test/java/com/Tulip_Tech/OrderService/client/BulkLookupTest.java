@@ -0,0 +1,83 @@
+package com.Tulip_Tech.OrderService.client;
+
+import com.Tulip_Tech.OrderService.exception.CustomException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkLookupTest {
+
+    private final AtomicInteger bulkCalls = new AtomicInteger();
+    private final AtomicInteger singleCalls = new AtomicInteger();
+
+    @DisplayName("BulkLookup - a 400 from /batch routed onto /{id} falls back per-id for that request only")
+    @Test
+    void when_bulk_rejected_with_bad_request_then_per_id_without_caching() {
+        BulkLookup.BulkSupport bulkSupport = new BulkLookup.BulkSupport();
+        // what a service without /batch answers: the path maps onto /{id} and "batch" is not a number
+        Function<List<Long>, Mono<List<Long>>> typeMismatch = ids -> Mono.error(WebClientResponseException.create(
+                400, "Bad Request", null, "Failed to convert 'id' with value: 'batch'".getBytes(), null));
+
+        assertEquals(Map.of(1L, 1L, 2L, 2L), fetch(bulkSupport, typeMismatch).block());
+        assertEquals(Map.of(1L, 1L, 2L, 2L), fetch(bulkSupport, typeMismatch).block());
+
+        assertEquals(2, bulkCalls.get());
+        assertEquals(4, singleCalls.get());
+        assertTrue(bulkSupport.available());
+    }
+
+    @DisplayName("BulkLookup - a server error from the bulk endpoint is propagated")
+    @Test
+    void when_bulk_fails_then_error_propagated() {
+        BulkLookup.BulkSupport bulkSupport = new BulkLookup.BulkSupport();
+
+        CustomException ex = assertThrows(CustomException.class,
+                () -> fetch(bulkSupport, ids -> Mono.error(new CustomException("boom", HttpStatus.INTERNAL_SERVER_ERROR))).block());
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, ex.getHttpStatus());
+        assertEquals(0, singleCalls.get());
+        assertTrue(bulkSupport.available());
+    }
+
+    @DisplayName("BulkLookup - a missing bulk endpoint falls back to per-id calls until the cool-down passes")
+    @Test
+    void when_bulk_missing_then_per_id_until_cool_down() {
+        BulkLookup.BulkSupport latched = new BulkLookup.BulkSupport(Duration.ofMinutes(5));
+        Function<List<Long>, Mono<List<Long>>> missing = ids -> Mono.error(new CustomException("no route", HttpStatus.NOT_FOUND));
+
+        assertEquals(Map.of(1L, 1L, 2L, 2L), fetch(latched, missing).block());
+        assertEquals(Map.of(1L, 1L, 2L, 2L), fetch(latched, missing).block());
+        assertEquals(1, bulkCalls.get());
+        assertEquals(4, singleCalls.get());
+
+        // once the cool-down has passed the bulk endpoint is probed again and used if it answers
+        BulkLookup.BulkSupport expired = new BulkLookup.BulkSupport(Duration.ZERO);
+        assertEquals(Map.of(1L, 1L, 2L, 2L), fetch(expired, missing).block());
+        assertEquals(Map.of(1L, 1L, 2L, 2L), fetch(expired, Mono::just).block());
+        assertEquals(3, bulkCalls.get());
+        assertEquals(6, singleCalls.get());
+    }
+
+    private Mono<Map<Long, Long>> fetch(BulkLookup.BulkSupport bulkSupport, Function<List<Long>, Mono<List<Long>>> bulkCall) {
+        return BulkLookup.fetch(List.of(1L, 2L), 50, 4, bulkSupport, "product-service",
+                ids -> {
+                    bulkCalls.incrementAndGet();
+                    return bulkCall.apply(ids);
+                },
+                id -> {
+                    singleCalls.incrementAndGet();
+                    return Mono.just(id);
+                },
+                id -> id);
+    }
+}
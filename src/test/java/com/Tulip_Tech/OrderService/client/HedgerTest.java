@@ -0,0 +1,114 @@
+package com.Tulip_Tech.OrderService.client;
+
+import com.Tulip_Tech.OrderService.config.HedgeProfile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HedgerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @DisplayName("Hedger - a slow first attempt loses to the hedge")
+    @Test
+    void when_first_attempt_slow_then_hedge_wins() {
+        Hedger hedger = warmedUp(profile(1.0, 10));
+
+        String answer = hedger.call(slowThenFast()).block(Duration.ofSeconds(5));
+
+        assertEquals("fast", answer);
+        assertEquals(1, meterRegistry.counter("downstream.hedge.sent", "dependency", "product-service").count());
+        assertEquals(1, meterRegistry.counter("downstream.hedge.wins", "dependency", "product-service").count());
+    }
+
+    @DisplayName("Hedger - a first attempt that fails fast does not win over a hedge that succeeds")
+    @Test
+    void when_first_attempt_fails_fast_then_hedge_answers() {
+        Hedger hedger = warmedUp(profile(1.0, 10));
+        AtomicInteger attempts = new AtomicInteger();
+
+        String answer = hedger.call(() -> attempts.getAndIncrement() == 0
+                ? Mono.<String>error(new IllegalStateException("connection reset"))
+                : Mono.just("hedge")).block(Duration.ofSeconds(5));
+
+        assertEquals("hedge", answer);
+        assertEquals(2, attempts.get());
+        assertEquals(1, meterRegistry.counter("downstream.hedge.wins", "dependency", "product-service").count());
+    }
+
+    @DisplayName("Hedger - when both attempts fail the first attempt's error is reported")
+    @Test
+    void when_both_attempts_fail_then_first_error_propagated() {
+        Hedger hedger = warmedUp(profile(1.0, 10));
+        AtomicInteger attempts = new AtomicInteger();
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> hedger.call(() ->
+                Mono.<String>error(new IllegalStateException("attempt " + attempts.getAndIncrement()))).block(Duration.ofSeconds(5)));
+
+        assertEquals("attempt 0", ex.getMessage());
+        assertEquals(2, attempts.get());
+    }
+
+    @DisplayName("Hedger - no hedge once the budget is used up")
+    @Test
+    void when_budget_spent_then_first_attempt_is_awaited() {
+        // one token and no refill
+        Hedger hedger = warmedUp(profile(0.0, 1));
+
+        assertEquals("fast", hedger.call(slowThenFast()).block(Duration.ofSeconds(5)));
+        assertEquals("slow", hedger.call(slowThenFast()).block(Duration.ofSeconds(5)));
+
+        assertEquals(1, meterRegistry.counter("downstream.hedge.sent", "dependency", "product-service").count());
+        assertEquals(1, meterRegistry.counter("downstream.hedge.denied", "dependency", "product-service").count());
+    }
+
+    @Test
+    void disabled_hedger_makes_one_attempt() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        Hedger.disabled("product-service").call(() -> {
+            attempts.incrementAndGet();
+            return Mono.just("only");
+        }).block();
+
+        assertEquals(1, attempts.get());
+    }
+
+    private Hedger warmedUp(HedgeProfile profile) {
+        Hedger hedger = new Hedger("product-service", profile, meterRegistry);
+        for (int i = 0; i < 128; i++) {
+            hedger.record(Duration.ofMillis(1).toNanos());
+        }
+        assertEquals(profile.getMinDelay(), hedger.hedgeDelay());
+        return hedger;
+    }
+
+    private static HedgeProfile profile(double budgetRatio, int budgetBurst) {
+        HedgeProfile profile = new HedgeProfile();
+        profile.setEnabled(true);
+        profile.setMinDelay(Duration.ofMillis(20));
+        profile.setBudgetRatio(budgetRatio);
+        profile.setBudgetBurst(budgetBurst);
+        return profile;
+    }
+
+    private static Supplier<Mono<String>> slowThenFast() {
+        AtomicInteger attempts = new AtomicInteger();
+        return () -> attempts.getAndIncrement() == 0
+                ? Mono.delay(Duration.ofMillis(300)).thenReturn("slow")
+                : Mono.just("fast");
+    }
+}
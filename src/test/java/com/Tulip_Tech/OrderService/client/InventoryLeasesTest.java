@@ -0,0 +1,169 @@
+package com.Tulip_Tech.OrderService.client;
+
+import com.Tulip_Tech.OrderService.exception.CustomException;
+import com.Tulip_Tech.OrderService.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class InventoryLeasesTest {
+
+    @Mock
+    private ProductServiceClient productServiceClient;
+
+    @Mock
+    private ProductDetailsCache productDetailsCache;
+
+    @DisplayName("Leases - orders are served from the leased block without calling product-service")
+    @Test
+    void when_leased_then_reserved_locally() {
+        InventoryLeases leases = leases(0, Duration.ofMinutes(1));
+
+        leases.acquire(1L);
+
+        assertTrue(leases.tryReserve(1L, 40));
+        assertTrue(leases.tryReserve(1L, 40));
+        assertTrue(leases.tryReserve(1L, 20));
+        verify(productServiceClient, times(1)).reduceQuantity(1L, 100L);
+        verifyNoMoreInteractions(productServiceClient);
+    }
+
+    @DisplayName("Leases - a hot product gets a lease after enough direct orders")
+    @Test
+    void when_hot_then_leased() {
+        InventoryLeases leases = leases(0, Duration.ofMinutes(1));
+
+        assertFalse(leases.tryReserve(1L, 1));
+        assertFalse(leases.tryReserve(1L, 1));
+
+        verify(productServiceClient, timeout(5_000)).reduceQuantity(1L, 100L);
+    }
+
+    @DisplayName("Leases - a low budget is topped up in the background")
+    @Test
+    void when_low_then_renewed() {
+        InventoryLeases leases = leases(0.5, Duration.ofMinutes(1));
+        leases.acquire(1L);
+
+        assertTrue(leases.tryReserve(1L, 60));
+
+        verify(productServiceClient, timeout(5_000).times(2)).reduceQuantity(1L, 100L);
+    }
+
+    @DisplayName("Leases - unused stock is given back when the lease expires")
+    @Test
+    void when_expired_then_returned() {
+        InventoryLeases leases = leases(0, Duration.ofSeconds(-1));
+        leases.acquire(1L);
+        assertTrue(leases.tryReserve(1L, 30));
+
+        leases.sweep();
+
+        verify(productServiceClient).restoreQuantity(1L, 70L);
+        assertFalse(leases.tryReserve(1L, 1));
+    }
+
+    @DisplayName("Leases - a smaller block is taken when product-service has less stock")
+    @Test
+    void when_block_rejected_then_halved() {
+        InventoryLeases leases = leases(0, Duration.ofMinutes(1));
+        doThrow(new CustomException("Insufficient quantity", HttpStatus.BAD_REQUEST)).when(productServiceClient).reduceQuantity(1L, 100L);
+
+        leases.acquire(1L);
+
+        verify(productServiceClient).reduceQuantity(1L, 50L);
+        assertTrue(leases.tryReserve(1L, 50));
+    }
+
+    @DisplayName("Leases - released stock goes back to the lease, or to product-service without one")
+    @Test
+    void when_released_then_returned_to_lease_or_product_service() {
+        InventoryLeases leases = leases(0, Duration.ofMinutes(1));
+        leases.acquire(1L);
+        assertTrue(leases.tryReserve(1L, 100));
+
+        leases.release(1L, 30);
+        leases.release(2L, 5);
+
+        assertTrue(leases.tryReserve(1L, 30));
+        verify(productServiceClient).restoreQuantity(2L, 5L);
+        verify(productServiceClient, never()).restoreQuantity(eq(1L), anyLong());
+    }
+
+    @DisplayName("Leases - a failed give-back is retried a limited number of times, then abandoned")
+    @Test
+    void when_restore_keeps_failing_then_abandoned() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InventoryLeases leases = leases(meterRegistry, true, Duration.ZERO);
+        doThrow(new ServiceUnavailableException("down", HttpStatus.SERVICE_UNAVAILABLE)).when(productServiceClient).restoreQuantity(2L, 5L);
+
+        leases.release(2L, 5);
+        for (int i = 0; i < 5; i++) {
+            leases.sweep();
+        }
+
+        verify(productServiceClient, times(3)).restoreQuantity(2L, 5L);
+        assertEquals(5.0, abandoned(meterRegistry));
+    }
+
+    @DisplayName("Leases - a give-back rejected with a 4xx is not retried")
+    @Test
+    void when_restore_rejected_then_not_retried() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InventoryLeases leases = leases(meterRegistry, true, Duration.ZERO);
+        doThrow(new CustomException("Product not found", HttpStatus.NOT_FOUND)).when(productServiceClient).restoreQuantity(2L, 5L);
+
+        leases.release(2L, 5);
+        leases.sweep();
+
+        verify(productServiceClient, times(1)).restoreQuantity(2L, 5L);
+        assertEquals(5.0, abandoned(meterRegistry));
+    }
+
+    @DisplayName("Leases - a failed give-back waits out its backoff")
+    @Test
+    void when_restore_failed_then_not_retried_before_backoff() {
+        InventoryLeases leases = leases(new SimpleMeterRegistry(), true, Duration.ofMinutes(1));
+        doThrow(new ServiceUnavailableException("down", HttpStatus.SERVICE_UNAVAILABLE)).when(productServiceClient).restoreQuantity(2L, 5L);
+
+        leases.release(2L, 5);
+        leases.sweep();
+
+        verify(productServiceClient, times(1)).restoreQuantity(2L, 5L);
+    }
+
+    @DisplayName("Leases - with leasing disabled released stock is not sent to product-service")
+    @Test
+    void when_disabled_then_release_not_restored() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InventoryLeases leases = leases(meterRegistry, false, Duration.ZERO);
+
+        leases.release(2L, 5);
+        leases.sweep();
+
+        verifyNoInteractions(productServiceClient);
+        assertEquals(5.0, abandoned(meterRegistry));
+    }
+
+    private InventoryLeases leases(double lowWatermark, Duration ttl) {
+        return new InventoryLeases(productServiceClient, productDetailsCache, new SimpleMeterRegistry(), true, 100, 2, lowWatermark, ttl, 3, Duration.ZERO);
+    }
+
+    private InventoryLeases leases(SimpleMeterRegistry meterRegistry, boolean enabled, Duration restoreBackoff) {
+        return new InventoryLeases(productServiceClient, productDetailsCache, meterRegistry, enabled, 100, 2, 0, Duration.ofMinutes(1), 3, restoreBackoff);
+    }
+
+    private static double abandoned(SimpleMeterRegistry meterRegistry) {
+        return meterRegistry.get("product.lease.units").tag("direction", "abandoned").counter().count();
+    }
+}
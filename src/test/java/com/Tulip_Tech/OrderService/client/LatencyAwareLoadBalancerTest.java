@@ -0,0 +1,113 @@
+package com.Tulip_Tech.OrderService.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyAwareLoadBalancerTest {
+
+    private static final String SERVICE_ID = "product-service-svc";
+
+    private final ServiceInstance fast = instance("fast", 8081);
+    private final ServiceInstance slow = instance("slow", 8082);
+    private final ServiceInstance third = instance("third", 8083);
+
+    private InstanceLoadTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new InstanceLoadTracker(Duration.ofSeconds(10), Duration.ofSeconds(1));
+    }
+
+    @DisplayName("LoadBalancer - the slower of two instances stops getting traffic")
+    @Test
+    void when_instance_slow_then_other_chosen() {
+        LatencyAwareLoadBalancer balancer = balancer(false, fast, slow);
+        observe(fast, Duration.ofMillis(5));
+        observe(slow, Duration.ofMillis(200));
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals("fast", choose(balancer, null).getServer().getInstanceId());
+        }
+    }
+
+    @DisplayName("LoadBalancer - requests in flight count against an instance")
+    @Test
+    void when_instance_busy_then_other_chosen() {
+        LatencyAwareLoadBalancer balancer = balancer(false, fast, slow);
+        observe(fast, Duration.ofMillis(10));
+        observe(slow, Duration.ofMillis(10));
+        for (int i = 0; i < 5; i++) {
+            tracker.start(fast);
+        }
+
+        assertEquals("slow", choose(balancer, null).getServer().getInstanceId());
+    }
+
+    @DisplayName("LoadBalancer - the same product key keeps landing on the same replica")
+    @Test
+    void when_affinity_key_then_sticky_and_spread() {
+        LatencyAwareLoadBalancer balancer = balancer(true, fast, slow, third);
+
+        Map<String, String> firstChoice = new HashMap<>();
+        for (int product = 0; product < 100; product++) {
+            firstChoice.put(String.valueOf(product), choose(balancer, String.valueOf(product)).getServer().getInstanceId());
+        }
+        firstChoice.forEach((product, instance) ->
+                assertEquals(instance, choose(balancer, product).getServer().getInstanceId(), product));
+
+        Set<String> used = new HashSet<>(firstChoice.values());
+        assertEquals(3, used.size());
+    }
+
+    @Test
+    void single_instance_and_empty_list() {
+        assertEquals("fast", balancer(false, fast).select(List.of(fast), null).getInstanceId());
+        assertFalse(choose(balancer(false), null).hasServer());
+    }
+
+    private void observe(ServiceInstance instance, Duration latency) {
+        tracker.start(instance);
+        tracker.complete(instance, latency.toNanos(), false);
+    }
+
+    private LatencyAwareLoadBalancer balancer(boolean affinity, ServiceInstance... instances) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("supplier", ServiceInstanceListSuppliers.from(SERVICE_ID, instances));
+        return new LatencyAwareLoadBalancer(SERVICE_ID, beanFactory.getBeanProvider(ServiceInstanceListSupplier.class), tracker, affinity);
+    }
+
+    private static Response<ServiceInstance> choose(LatencyAwareLoadBalancer balancer, String affinityKey) {
+        HttpHeaders headers = new HttpHeaders();
+        if (affinityKey != null) {
+            headers.add(LatencyAwareLoadBalancer.AFFINITY_HEADER, affinityKey);
+        }
+        RequestData requestData = new RequestData(HttpMethod.GET, URI.create("http://" + SERVICE_ID + "/product/1"), headers, null, Map.of());
+        return balancer.choose(new DefaultRequest<>(new RequestDataContext(requestData))).block();
+    }
+
+    private static ServiceInstance instance(String id, int port) {
+        return new DefaultServiceInstance(id, SERVICE_ID, "localhost", port, false);
+    }
+}
@@ -0,0 +1,92 @@
+package com.Tulip_Tech.OrderService.client;
+
+import com.Tulip_Tech.OrderService.exception.CustomException;
+import com.Tulip_Tech.OrderService.model.domain.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductDetailsCacheTest {
+
+    @Mock
+    private ProductServiceClient productServiceClient;
+
+    private ProductDetailsCache productDetailsCache;
+
+    @BeforeEach
+    void setUp() {
+        productDetailsCache = new ProductDetailsCache(productServiceClient, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(10), Duration.ofMinutes(2), Duration.ofSeconds(30));
+    }
+
+    @DisplayName("Cache - concurrent misses share one downstream call")
+    @Test
+    void when_concurrent_misses_then_single_load() throws Exception {
+        when(productServiceClient.fetchProductById(1L))
+                .thenReturn(Mono.delay(Duration.ofMillis(200)).thenReturn(new Order.ProductDetails(1L, "Wireless Mouse", 200L, 150L)));
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            CompletableFuture<?>[] lookups = new CompletableFuture<?>[8];
+            for (int i = 0; i < lookups.length; i++) {
+                lookups[i] = CompletableFuture.supplyAsync(() -> productDetailsCache.get(1L), callers);
+            }
+            CompletableFuture.allOf(lookups).get(5, TimeUnit.SECONDS);
+        } finally {
+            callers.shutdownNow();
+        }
+
+        verify(productServiceClient, times(1)).fetchProductById(1L);
+    }
+
+    @DisplayName("Cache - 4xx answers are cached as misses")
+    @Test
+    void when_product_not_found_then_negative_result_is_cached() {
+        when(productServiceClient.fetchProductById(7L))
+                .thenReturn(Mono.error(new CustomException("Product not found", HttpStatus.NOT_FOUND)));
+
+        assertNull(productDetailsCache.get(7L));
+        assertNull(productDetailsCache.get(7L));
+
+        verify(productServiceClient, times(1)).fetchProductById(7L);
+    }
+
+    @DisplayName("Cache - 5xx answers are not cached")
+    @Test
+    void when_product_service_fails_then_error_is_not_cached() {
+        when(productServiceClient.fetchProductById(3L))
+                .thenReturn(Mono.error(new CustomException("boom", HttpStatus.INTERNAL_SERVER_ERROR)))
+                .thenReturn(Mono.just(new Order.ProductDetails(3L, "Keyboard", 300L, 10L)));
+
+        assertThrows(CustomException.class, () -> productDetailsCache.get(3L));
+        assertEquals("Keyboard", productDetailsCache.get(3L).getProductName());
+    }
+
+    @DisplayName("Cache - invalidate forces a reload")
+    @Test
+    void when_invalidated_then_reloaded() {
+        when(productServiceClient.fetchProductById(1L)).thenReturn(Mono.just(new Order.ProductDetails(1L, "Wireless Mouse", 200L, 150L)));
+
+        productDetailsCache.get(1L);
+        productDetailsCache.invalidate(1L);
+        productDetailsCache.get(1L);
+
+        verify(productServiceClient, times(2)).fetchProductById(1L);
+    }
+}
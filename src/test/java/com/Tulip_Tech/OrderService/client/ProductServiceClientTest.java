@@ -0,0 +1,87 @@
+package com.Tulip_Tech.OrderService.client;
+
+import com.Tulip_Tech.OrderService.exception.ServiceUnavailableException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductServiceClientTest {
+
+    private final AtomicInteger exchanges = new AtomicInteger();
+    private final AtomicReference<HttpHeaders> lastHeaders = new AtomicReference<>();
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+    private WebClient webClient;
+    private ProductServiceClient productServiceClient;
+
+    @BeforeEach
+    void setUp() {
+        webClient = WebClient.builder()
+                .baseUrl("http://product-service/product/")
+                .exchangeFunction(request -> {
+                    exchanges.incrementAndGet();
+                    lastHeaders.set(request.headers());
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body("[{\"id\":1,\"productName\":\"Wireless Mouse\",\"price\":200,\"quantity\":150}]")
+                            .build());
+                })
+                .build();
+        productServiceClient = client(false);
+    }
+
+    @DisplayName("ProductServiceClient - bulk lookups go through the product-service circuit breaker")
+    @Test
+    void when_breaker_open_then_bulk_lookup_rejected() {
+        assertEquals(1, productServiceClient.getProductsByIds(List.of(1L)).size());
+
+        circuitBreakerRegistry.circuitBreaker(ProductServiceClient.PRODUCT_SERVICE).transitionToOpenState();
+
+        assertThrows(CallNotPermittedException.class, () -> productServiceClient.getProductsByIds(List.of(1L, 2L)));
+        assertThrows(CallNotPermittedException.class, () -> productServiceClient.getProductById(1L));
+        assertEquals(1, exchanges.get());
+    }
+
+    @DisplayName("ProductServiceClient - the affinity hint is only sent when the latency-aware load balancer reads it")
+    @Test
+    void affinity_header_only_when_load_balanced() {
+        productServiceClient.restoreQuantity(7L, 1);
+        assertFalse(lastHeaders.get().containsKey(LatencyAwareLoadBalancer.AFFINITY_HEADER));
+
+        client(true).restoreQuantity(7L, 1);
+        assertEquals("7", lastHeaders.get().getFirst(LatencyAwareLoadBalancer.AFFINITY_HEADER));
+    }
+
+    @DisplayName("ProductServiceClient - a reduceQuantity that times out answers 503")
+    @Test
+    void when_reduce_quantity_times_out_then_service_unavailable() {
+        WebClient hanging = WebClient.builder()
+                .baseUrl("http://product-service/product/")
+                .exchangeFunction(request -> Mono.never())
+                .build();
+        ProductServiceClient slowClient = new ProductServiceClient(hanging, 4, Duration.ofMillis(50), Hedger.disabled("product-service"),
+                circuitBreakerRegistry, BulkheadRegistry.ofDefaults(), false, true);
+
+        assertThrows(ServiceUnavailableException.class, () -> slowClient.reduceQuantity(7L, 1));
+    }
+
+    private ProductServiceClient client(boolean loadBalanced) {
+        return new ProductServiceClient(webClient, 4, Duration.ofSeconds(2), Hedger.disabled("product-service"),
+                circuitBreakerRegistry, BulkheadRegistry.ofDefaults(), loadBalanced, true);
+    }
+}
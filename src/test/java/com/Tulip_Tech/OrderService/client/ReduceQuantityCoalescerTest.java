@@ -0,0 +1,133 @@
+package com.Tulip_Tech.OrderService.client;
+
+import com.Tulip_Tech.OrderService.exception.CustomException;
+import com.Tulip_Tech.OrderService.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReduceQuantityCoalescerTest {
+
+    @Mock
+    private ProductServiceClient productServiceClient;
+
+    @DisplayName("Coalescer - concurrent decrements for one product become one call")
+    @Test
+    void when_concurrent_decrements_then_single_summed_call() throws Exception {
+        // the batch fills up before the window ends, so the test does not depend on timing
+        ReduceQuantityCoalescer coalescer = new ReduceQuantityCoalescer(productServiceClient, new SimpleMeterRegistry(), Duration.ofSeconds(5), 8, Duration.ofSeconds(5));
+
+        List<Throwable> failures = runConcurrently(coalescer, 8);
+
+        assertTrue(failures.isEmpty());
+        verify(productServiceClient, times(1)).reduceQuantity(1L, 8L);
+        verifyNoMoreInteractions(productServiceClient);
+    }
+
+    @DisplayName("Coalescer - rejected batch is split until each order has its own answer")
+    @Test
+    void when_batch_rejected_then_split() throws Exception {
+        ReduceQuantityCoalescer coalescer = new ReduceQuantityCoalescer(productServiceClient, new SimpleMeterRegistry(), Duration.ofSeconds(5), 4, Duration.ofSeconds(5));
+        CustomException outOfStock = new CustomException("Insufficient quantity", HttpStatus.BAD_REQUEST);
+        doThrow(outOfStock).when(productServiceClient).reduceQuantity(1L, 4L);
+        doNothing().doThrow(outOfStock).when(productServiceClient).reduceQuantity(1L, 2L);
+        doNothing().doThrow(outOfStock).when(productServiceClient).reduceQuantity(1L, 1L);
+
+        List<Throwable> failures = runConcurrently(coalescer, 4);
+
+        assertEquals(1, failures.size());
+        assertSame(outOfStock, failures.getFirst());
+        verify(productServiceClient, times(5)).reduceQuantity(eq(1L), anyLong());
+    }
+
+    @DisplayName("Coalescer - zero window sends every call straight through")
+    @Test
+    void when_window_zero_then_pass_through() {
+        ReduceQuantityCoalescer coalescer = new ReduceQuantityCoalescer(productServiceClient, new SimpleMeterRegistry(), Duration.ZERO, 64, Duration.ofSeconds(5));
+
+        coalescer.reduceQuantity(1L, 3L);
+        coalescer.reduceQuantity(1L, 2L);
+
+        verify(productServiceClient).reduceQuantity(1L, 3L);
+        verify(productServiceClient).reduceQuantity(1L, 2L);
+    }
+
+    @DisplayName("Coalescer - a caller that gives up gets 503 and its units are given back")
+    @Test
+    void when_wait_times_out_then_unavailable_and_restored() {
+        ReduceQuantityCoalescer coalescer = new ReduceQuantityCoalescer(productServiceClient, new SimpleMeterRegistry(),
+                Duration.ofMillis(10), 64, Duration.ofMillis(50));
+        doAnswer(invocation -> {
+            Thread.sleep(300);
+            return null;
+        }).when(productServiceClient).reduceQuantity(1L, 3L);
+
+        assertThrows(ServiceUnavailableException.class, () -> coalescer.reduceQuantity(1L, 3L));
+
+        verify(productServiceClient, timeout(5_000)).restoreQuantity(1L, 3L);
+    }
+
+    @DisplayName("Coalescer - a give-back that fails is retried, one rejected with a 4xx is abandoned")
+    @Test
+    void when_restore_fails_then_retried_unless_client_error() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ReduceQuantityCoalescer coalescer = new ReduceQuantityCoalescer(productServiceClient, meterRegistry,
+                Duration.ofMillis(10), 64, Duration.ofMillis(50));
+        doAnswer(invocation -> {
+            Thread.sleep(300);
+            return null;
+        }).when(productServiceClient).reduceQuantity(anyLong(), anyLong());
+        doThrow(new ServiceUnavailableException("down", HttpStatus.SERVICE_UNAVAILABLE))
+                .doNothing()
+                .when(productServiceClient).restoreQuantity(1L, 3L);
+        doThrow(new CustomException("Product not found", HttpStatus.NOT_FOUND))
+                .when(productServiceClient).restoreQuantity(2L, 4L);
+
+        assertThrows(ServiceUnavailableException.class, () -> coalescer.reduceQuantity(1L, 3L));
+        assertThrows(ServiceUnavailableException.class, () -> coalescer.reduceQuantity(2L, 4L));
+
+        verify(productServiceClient, timeout(5_000).times(2)).restoreQuantity(1L, 3L);
+        verify(productServiceClient, timeout(5_000)).restoreQuantity(2L, 4L);
+        verify(productServiceClient, after(1_500).times(1)).restoreQuantity(2L, 4L);
+        assertEquals(4.0, meterRegistry.get("product.reduce.abandoned.units").counter().count());
+    }
+
+    private static List<Throwable> runConcurrently(ReduceQuantityCoalescer coalescer, int callers) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                calls.add(executor.submit(() -> coalescer.reduceQuantity(1L, 1L)));
+            }
+
+            List<Throwable> failures = new ArrayList<>();
+            for (Future<?> call : calls) {
+                try {
+                    call.get(5, TimeUnit.SECONDS);
+                } catch (ExecutionException ex) {
+                    failures.add(ex.getCause());
+                }
+            }
+            return failures;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
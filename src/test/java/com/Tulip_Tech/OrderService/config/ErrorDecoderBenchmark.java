@@ -0,0 +1,50 @@
+package com.Tulip_Tech.OrderService.config;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link WebClientConfig#errorDecoderFilter()} on a successful response and on a 4xx whose JSON
+ * body becomes a {@code CustomException}, which includes decoding the body and building the
+ * exception message and stack trace. Kept next to {@link WebClientConfig} so the filter can stay
+ * package-private. Run with {@code mvn test -Pjmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorDecoderBenchmark {
+
+    private static final String ERROR_BODY = "{\"errorCode\":\"INSUFFICIENT_QUANTITY\",\"errorMessage\":\"Product does not have sufficient quantity\"}";
+
+    private final ExchangeFilterFunction filter = WebClientConfig.errorDecoderFilter();
+    private final ClientRequest request = ClientRequest.create(HttpMethod.PUT, URI.create("http://product-service-svc/product/reduceQuantity/1")).build();
+
+    @Benchmark
+    public Object success() {
+        return filter.filter(request, ignored -> Mono.just(ClientResponse.create(HttpStatus.OK).build())).block();
+    }
+
+    @Benchmark
+    public Object clientError() {
+        return filter.filter(request, ignored -> Mono.just(ClientResponse.create(HttpStatus.BAD_REQUEST)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(ERROR_BODY)
+                        .build()))
+                .cast(Object.class)
+                .onErrorResume(ex -> Mono.just(ex.getMessage()))
+                .block();
+    }
+}
@@ -0,0 +1,71 @@
+package com.Tulip_Tech.OrderService.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GradientLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @DisplayName("Limiter - requests beyond the limit are rejected and counted")
+    @Test
+    void when_limit_reached_then_rejected() {
+        GradientLimiter limiter = new GradientLimiter("test", 3, 1, 10, 1.5, meterRegistry);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        assertEquals(3, meterRegistry.get("test.inflight").gauge().value());
+        assertEquals(1, meterRegistry.get("test.rejected").counter().count());
+
+        limiter.release(10 * MILLIS, false);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @DisplayName("Limiter - steady latency under full load raises the limit, rising latency lowers it")
+    @Test
+    void when_latency_rises_then_limit_shrinks() {
+        GradientLimiter limiter = new GradientLimiter("test", 20, 5, 200, 1.5, meterRegistry);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.sample(10 * MILLIS, limiter.limit(), false);
+        }
+        int grown = limiter.limit();
+        assertTrue(grown > 20, "limit " + grown);
+
+        for (int i = 0; i < 30; i++) {
+            limiter.sample(100 * MILLIS, limiter.limit(), false);
+        }
+        assertTrue(limiter.limit() < grown / 2, "limit " + limiter.limit());
+        assertTrue(limiter.limit() >= 5);
+    }
+
+    @DisplayName("Limiter - samples from a mostly idle server leave the limit alone")
+    @Test
+    void when_app_limited_then_limit_unchanged() {
+        GradientLimiter limiter = new GradientLimiter("test", 20, 5, 200, 1.5, meterRegistry);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.sample(10 * MILLIS, 2, false);
+        }
+
+        assertEquals(20, limiter.limit());
+    }
+
+    @DisplayName("Limiter - an overload answer backs the limit off")
+    @Test
+    void when_overloaded_then_backoff() {
+        GradientLimiter limiter = new GradientLimiter("test", 100, 5, 200, 1.5, meterRegistry);
+
+        limiter.sample(10 * MILLIS, 100, true);
+
+        assertEquals(90, limiter.limit());
+    }
+}
@@ -0,0 +1,129 @@
+package com.Tulip_Tech.OrderService.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TailSamplingSpanExporterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CapturingExporter delegate = new CapturingExporter();
+    private TailSamplingSpanExporter exporter;
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.shutdown().join(5, TimeUnit.SECONDS);
+    }
+
+    @DisplayName("Tail sampling - errored and slow traces are exported in full")
+    @Test
+    void error_and_slow_traces_are_kept() {
+        start(Duration.ofMillis(500), 0.01, Duration.ofSeconds(10));
+
+        Span root = tracer.spanBuilder("POST /order/placeOrder").startSpan();
+        Span child = tracer.spanBuilder("reduceQuantity").setParent(Context.current().with(root)).startSpan();
+        child.setStatus(StatusCode.ERROR);
+        child.end();
+        assertTrue(delegate.spans.isEmpty());
+        root.end();
+
+        // a zero start timestamp means "unset" to OpenTelemetry, so use a real one
+        Instant now = Instant.now();
+        Span slow = tracer.spanBuilder("GET /order/{orderId}").setStartTimestamp(now.minusMillis(800)).startSpan();
+        slow.end(now);
+
+        assertEquals(3, delegate.spans.size());
+        assertEquals(1, count("error"));
+        assertEquals(1, count("slow"));
+        assertEquals(0, exporter.buffered());
+    }
+
+    @DisplayName("Tail sampling - fast healthy traces are limited per endpoint")
+    @Test
+    void fast_traces_are_rate_limited_per_endpoint() {
+        start(Duration.ofMillis(500), 0.01, Duration.ofSeconds(10));
+
+        for (int i = 0; i < 5; i++) {
+            tracer.spanBuilder("GET /order/{orderId}").startSpan().end();
+        }
+        tracer.spanBuilder("POST /order/placeOrder").startSpan().end();
+
+        assertEquals(List.of("GET /order/{orderId}", "POST /order/placeOrder"),
+                delegate.spans.stream().map(SpanData::getName).toList());
+        assertEquals(2, count("sampled"));
+        assertEquals(4, count("dropped"));
+    }
+
+    @DisplayName("Tail sampling - spans whose root never ends are decided by the sweep")
+    @Test
+    void orphaned_spans_are_decided_on_sweep() {
+        start(Duration.ofMillis(500), 0.01, Duration.ZERO);
+
+        Span root = tracer.spanBuilder("POST /order/placeOrder").startSpan();
+        Span child = tracer.spanBuilder("sendPayment").setParent(Context.current().with(root)).startSpan();
+        child.setStatus(StatusCode.ERROR);
+        child.end();
+
+        // with a zero timeout the background sweeper may get there first; either way it is kept once
+        exporter.sweep();
+        assertEquals(0, exporter.buffered());
+        assertEquals(1, delegate.spans.size());
+
+        // the late root follows the decision already made for its trace
+        root.end();
+        assertEquals(2, delegate.spans.size());
+        assertEquals(1, count("error"));
+    }
+
+    private void start(Duration latencyThreshold, double tracesPerSecond, Duration bufferTimeout) {
+        exporter = new TailSamplingSpanExporter(delegate, latencyThreshold, tracesPerSecond, bufferTimeout, 100, meterRegistry);
+        tracerProvider = SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(exporter)).build();
+        tracer = tracerProvider.get("test");
+    }
+
+    private double count(String decision) {
+        return meterRegistry.get("tracing.tail.traces").tag("decision", decision).counter().count();
+    }
+
+    private static final class CapturingExporter implements SpanExporter {
+
+        private final List<SpanData> spans = new ArrayList<>();
+
+        @Override
+        public synchronized CompletableResultCode export(Collection<SpanData> batch) {
+            spans.addAll(batch);
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.Tulip_Tech.OrderService.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebClientConfigTest {
+
+    @DisplayName("WebClientConfig - each downstream binds its own profile, unset keys keep defaults")
+    @Test
+    void profiles_bind_per_service() {
+        Binder binder = new Binder(new MapConfigurationPropertySource(Map.of(
+                "payment.service.http.max-connections", "10",
+                "payment.service.http.response-timeout", "5s",
+                "payment.service.http.http2", "true")));
+
+        HttpClientProfile payment = binder.bindOrCreate("payment.service.http", Bindable.of(HttpClientProfile.class));
+        HttpClientProfile product = binder.bindOrCreate("product.service.http", Bindable.of(HttpClientProfile.class));
+
+        assertEquals(10, payment.getMaxConnections());
+        assertEquals(Duration.ofSeconds(5), payment.getResponseTimeout());
+        assertTrue(payment.isHttp2());
+        assertEquals(50, product.getMaxConnections());
+        assertFalse(product.isHttp2());
+
+        ConnectionProvider provider = WebClientConfig.connectionProvider("payment-service", payment);
+        try {
+            assertEquals(10, provider.maxConnections());
+        } finally {
+            provider.dispose();
+        }
+    }
+
+    @Test
+    void metric_uri_tags_drop_ids_and_query() {
+        assertEquals("/product/reduceQuantity/{id}", WebClientConfig.uriTemplate("/product/reduceQuantity/42?quantity=3"));
+        assertEquals("/payment/batch", WebClientConfig.uriTemplate("/payment/batch?orderIds=1&orderIds=2"));
+    }
+}
@@ -2,8 +2,13 @@ package com.Tulip_Tech.OrderService.controller;
 
 
 import com.Tulip_Tech.OrderService.model.Dto.CreateOrderRequest;
+import com.Tulip_Tech.OrderService.model.Dto.CursorPage;
 import com.Tulip_Tech.OrderService.model.Payment_Mode;
+import com.Tulip_Tech.OrderService.model.domain.Order;
+import com.Tulip_Tech.OrderService.service.IdempotencyStore;
+import com.Tulip_Tech.OrderService.service.OrderExporter;
 import com.Tulip_Tech.OrderService.service.OrderService;
+import com.Tulip_Tech.OrderService.service.OrderStatsAggregator;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
@@ -20,8 +25,13 @@ import org.springframework.test.web.servlet.assertj.MockMvcTester;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.time.Instant;
+import java.util.List;
+
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -34,6 +44,15 @@ public class OrderControllerTest {
     @MockitoBean
     private OrderService orderService;
 
+    @MockitoBean
+    private OrderExporter orderExporter;
+
+    @MockitoBean
+    private OrderStatsAggregator orderStatsAggregator;
+
+    @MockitoBean
+    private IdempotencyStore idempotencyStore;
+
     private ObjectMapper objectMapper = new ObjectMapper()
             .findAndRegisterModules()
             .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
@@ -57,6 +76,18 @@ public class OrderControllerTest {
 
     }
 
+    @Test
+    void when_getOrders_then_array_with_next_cursor_header() throws Exception {
+        Order order = new Order(1L, 2L, 2L, Instant.now(), 1000L, Payment_Mode.CASH, null, null);
+        when(orderService.getPage(null, 1, false)).thenReturn(new CursorPage<>(List.of(order), 1L));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/order").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().string(OrderController.NEXT_CURSOR_HEADER, "1"));
+    }
+
 
 
 }
@@ -0,0 +1,89 @@
+package com.Tulip_Tech.OrderService.mapper;
+
+import com.Tulip_Tech.OrderService.entity.OrderEntity;
+import com.Tulip_Tech.OrderService.entity.OrderSnapshot;
+import com.Tulip_Tech.OrderService.model.Dto.CreateOrderRequest;
+import com.Tulip_Tech.OrderService.model.OrderStatus;
+import com.Tulip_Tech.OrderService.model.Payment_Mode;
+import com.Tulip_Tech.OrderService.model.domain.Order;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The mapper copies fields by hand, so these tests compare both sides of each pair by field
+ * name: a field added to an entity, domain object or request without a matching line in
+ * {@link OrderMapper} fails here instead of silently staying null.
+ */
+public class OrderMapperTest {
+
+    private final OrderMapper orderMapper = new OrderMapper();
+
+    @DisplayName("Mapper - every Order field is filled from the entity")
+    @Test
+    void entity_to_order_is_complete() throws Exception {
+        OrderSnapshot snapshot = new OrderSnapshot("Mouse", 200L, 9L, "Me", OrderSnapshot.PAYMENT_SUCCESS, Instant.now());
+        OrderEntity orderEntity = new OrderEntity(1L, 2L, 3L, OrderStatus.CREATED.name(), Instant.now(), 600L, Payment_Mode.BKASH, snapshot);
+
+        Order order = orderMapper.EntityToOrder(orderEntity);
+
+        for (Field field : instanceFields(Order.class)) {
+            Object value = field.get(order);
+            assertNotNull(value, "Order." + field.getName() + " is not mapped");
+            Field source = findField(OrderEntity.class, field.getName());
+            if (source != null) {
+                assertEquals(source.get(orderEntity), value, "Order." + field.getName());
+            }
+        }
+        for (Field field : instanceFields(Order.PaymentDetails.class)) {
+            assertNotNull(field.get(order.getPaymentDetails()), "PaymentDetails." + field.getName() + " is not mapped");
+        }
+        assertEquals("Mouse", order.getProductDetails().getProductName());
+        assertEquals(200L, order.getProductDetails().getPrice());
+    }
+
+    @DisplayName("Mapper - every request component lands on the entity")
+    @Test
+    void request_to_entity_is_complete() throws Exception {
+        CreateOrderRequest request = new CreateOrderRequest(2L, 3L, 600L, Payment_Mode.NAGAD);
+
+        OrderEntity orderEntity = orderMapper.createOrderEntity(request);
+
+        for (RecordComponent component : CreateOrderRequest.class.getRecordComponents()) {
+            Field target = findField(OrderEntity.class, component.getName());
+            assertNotNull(target, "OrderEntity has no field for CreateOrderRequest." + component.getName());
+            assertEquals(component.getAccessor().invoke(request), target.get(orderEntity), component.getName());
+        }
+        // generated or filled in later
+        Set<String> notFromRequest = Set.of("orderId", "snapshot");
+        for (Field field : instanceFields(OrderEntity.class)) {
+            if (!notFromRequest.contains(field.getName())) {
+                assertNotNull(field.get(orderEntity), "OrderEntity." + field.getName() + " is not set");
+            }
+        }
+    }
+
+    private static Field[] instanceFields(Class<?> type) {
+        return Arrays.stream(type.getDeclaredFields())
+                .filter(field -> !Modifier.isStatic(field.getModifiers()))
+                .peek(field -> field.setAccessible(true))
+                .toArray(Field[]::new);
+    }
+
+    private static Field findField(Class<?> type, String name) {
+        for (Field field : instanceFields(type)) {
+            if (field.getName().equals(name)) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,137 @@
+package com.Tulip_Tech.OrderService.service;
+
+import com.Tulip_Tech.OrderService.model.Dto.CreateOrderRequest;
+import com.Tulip_Tech.OrderService.model.Payment_Mode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyStoreTest {
+
+    private static final CreateOrderRequest REQUEST = new CreateOrderRequest(1L, 2L, 2000L, Payment_Mode.CASH);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private IdempotencyStore idempotencyStore;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyStore = new IdempotencyStore(jdbcTemplate, new ObjectMapper(), new SimpleMeterRegistry(),
+                1_000, Duration.ofHours(1), Duration.ofSeconds(5), Duration.ofMinutes(1));
+    }
+
+    @DisplayName("Idempotency - a retried request gets the first response without placing the order again")
+    @Test
+    void when_duplicate_then_replayed() {
+        AtomicInteger placed = new AtomicInteger();
+
+        ResponseEntity<?> first = idempotencyStore.execute("k1", REQUEST, () -> ResponseEntity.ok(100L + placed.incrementAndGet()));
+        ResponseEntity<?> second = idempotencyStore.execute("k1", REQUEST, () -> ResponseEntity.ok(100L + placed.incrementAndGet()));
+
+        assertEquals(1, placed.get());
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertEquals("101", String.valueOf(second.getBody()));
+        assertEquals("101", String.valueOf(first.getBody()));
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+    }
+
+    @DisplayName("Idempotency - a duplicate arriving mid-flight waits for the first result")
+    @Test
+    void when_duplicate_in_flight_then_waits() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger placed = new AtomicInteger();
+
+        CompletableFuture<ResponseEntity<?>> first = CompletableFuture.supplyAsync(() -> idempotencyStore.execute("k1", REQUEST, () -> {
+            placed.incrementAndGet();
+            started.countDown();
+            await(release);
+            return ResponseEntity.ok(7L);
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ResponseEntity<?>> duplicate = CompletableFuture.supplyAsync(() -> idempotencyStore.execute("k1", REQUEST, () -> {
+            placed.incrementAndGet();
+            return ResponseEntity.ok(8L);
+        }));
+        release.countDown();
+
+        assertEquals("7", String.valueOf(duplicate.get(5, TimeUnit.SECONDS).getBody()));
+        assertEquals("7", String.valueOf(first.get(5, TimeUnit.SECONDS).getBody()));
+        assertEquals(1, placed.get());
+    }
+
+    @DisplayName("Idempotency - a 5xx is not kept, so the retry runs again")
+    @Test
+    void when_server_error_then_retry_runs() {
+        AtomicInteger placed = new AtomicInteger();
+
+        idempotencyStore.execute("k1", REQUEST, () -> {
+            placed.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("down");
+        });
+        ResponseEntity<?> retry = idempotencyStore.execute("k1", REQUEST, () -> {
+            placed.incrementAndGet();
+            return ResponseEntity.ok(9L);
+        });
+
+        assertEquals(2, placed.get());
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+        verify(jdbcTemplate).update(startsWith("delete"), eq("k1"));
+    }
+
+    @DisplayName("Idempotency - a key reused with another body is rejected")
+    @Test
+    void when_different_request_then_unprocessable() {
+        idempotencyStore.execute("k1", REQUEST, () -> ResponseEntity.ok(1L));
+
+        ResponseEntity<?> reused = idempotencyStore.execute("k1", new CreateOrderRequest(1L, 3L, 3000L, Payment_Mode.CASH),
+                () -> ResponseEntity.ok(2L));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+    }
+
+    @DisplayName("Idempotency - a key completed on another instance is answered from the database")
+    @SuppressWarnings("unchecked")
+    @Test
+    void when_stored_in_database_then_replayed() {
+        doThrow(new DuplicateKeyException("duplicate")).when(jdbcTemplate).update(startsWith("insert"), eq("k1"), any(), any());
+        when(jdbcTemplate.query(startsWith("select"), any(RowMapper.class), eq("k1")))
+                .thenReturn(List.of(new IdempotencyStore.Outcome(idempotencyStore.fingerprint(REQUEST), 200, "42")));
+
+        ResponseEntity<?> response = idempotencyStore.execute("k1", REQUEST, () -> fail("order placed twice"));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("42", String.valueOf(response.getBody()));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
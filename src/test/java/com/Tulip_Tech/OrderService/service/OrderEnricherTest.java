@@ -0,0 +1,107 @@
+package com.Tulip_Tech.OrderService.service;
+
+import com.Tulip_Tech.OrderService.client.PaymentServiceClient;
+import com.Tulip_Tech.OrderService.client.ProductDetailsCache;
+import com.Tulip_Tech.OrderService.entity.OrderEntity;
+import com.Tulip_Tech.OrderService.exception.CustomException;
+import com.Tulip_Tech.OrderService.mapper.OrderMapper;
+import com.Tulip_Tech.OrderService.model.Payment_Mode;
+import com.Tulip_Tech.OrderService.model.domain.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderEnricherTest {
+
+    @Mock
+    private ProductDetailsCache productDetailsCache;
+
+    @Mock
+    private PaymentServiceClient paymentServiceClient;
+
+    @Mock
+    private OrderMapper orderMapper;
+
+    private OrderEnricher orderEnricher;
+
+    @BeforeEach
+    void setUp() {
+        orderEnricher = new OrderEnricher(productDetailsCache, paymentServiceClient, orderMapper, Duration.ofMillis(500),
+                new OrderStageMetrics(new SimpleMeterRegistry()));
+    }
+
+    @DisplayName("Enrich - one bulk lookup per dependency for distinct ids")
+    @Test
+    void when_enrich_then_distinct_ids_are_looked_up_once(){
+        OrderEntity orderEntity = new OrderEntity(1L, 2L, 2L, "ACCEPT", Instant.now(), 1000L, Payment_Mode.CASH, null);
+        OrderEntity orderEntity1 = new OrderEntity(2L, 2L, 3L, "ACCEPT", Instant.now(), 600L, Payment_Mode.BKASH, null);
+
+        when(orderMapper.EntityToOrder(any(OrderEntity.class))).thenAnswer(invocation -> new Order());
+        when(productDetailsCache.getAll(Set.of(2L)))
+                .thenReturn(Mono.just(Map.of(2L, new Order.ProductDetails(2L, "Iphone 17", 500L, 2L))));
+        when(paymentServiceClient.fetchPaymentsByOrderIds(Set.of(1L, 2L)))
+                .thenReturn(Mono.just(Map.of(1L, new Order.PaymentDetails(1L, 1L, Payment_Mode.CASH, "ref123", Instant.now(), "SUCCESS", 1000L))));
+
+        List<Order> result = orderEnricher.enrich(List.of(orderEntity, orderEntity1));
+
+        verify(productDetailsCache, times(1)).getAll(Set.of(2L));
+        verify(paymentServiceClient, times(1)).fetchPaymentsByOrderIds(Set.of(1L, 2L));
+        verifyNoMoreInteractions(productDetailsCache, paymentServiceClient);
+
+        assertEquals(2, result.size());
+        assertEquals("Iphone 17", result.get(0).getProductDetails().getProductName());
+        assertSame(result.get(0).getProductDetails(), result.get(1).getProductDetails());
+        assertNotNull(result.get(0).getPaymentDetails());
+        assertNull(result.get(1).getPaymentDetails(), "Order without a payment keeps null details");
+    }
+
+    @DisplayName("Enrich - failing dependency only blanks its own field")
+    @Test
+    void when_product_lookup_fails_then_payment_details_still_set(){
+        OrderEntity orderEntity = new OrderEntity(1L, 2L, 2L, "ACCEPT", Instant.now(), 1000L, Payment_Mode.CASH, null);
+
+        when(orderMapper.EntityToOrder(orderEntity)).thenReturn(new Order());
+        when(productDetailsCache.getAll(anyCollection()))
+                .thenReturn(Mono.error(new CustomException("product-service down", HttpStatus.INTERNAL_SERVER_ERROR)));
+        when(paymentServiceClient.fetchPaymentsByOrderIds(anyCollection()))
+                .thenReturn(Mono.just(Map.of(1L, new Order.PaymentDetails(1L, 1L, Payment_Mode.CASH, "ref123", Instant.now(), "SUCCESS", 1000L))));
+
+        List<Order> result = orderEnricher.enrich(List.of(orderEntity));
+
+        assertNull(result.get(0).getProductDetails());
+        assertNotNull(result.get(0).getPaymentDetails());
+    }
+
+    @DisplayName("Enrich - slow dependency times out without failing the listing")
+    @Test
+    void when_payment_lookup_is_slow_then_only_payment_details_are_missing(){
+        OrderEntity orderEntity = new OrderEntity(1L, 2L, 2L, "ACCEPT", Instant.now(), 1000L, Payment_Mode.CASH, null);
+
+        when(orderMapper.EntityToOrder(orderEntity)).thenReturn(new Order());
+        when(productDetailsCache.getAll(anyCollection()))
+                .thenReturn(Mono.just(Map.of(2L, new Order.ProductDetails(2L, "Iphone 17", 500L, 2L))));
+        when(paymentServiceClient.fetchPaymentsByOrderIds(anyCollection()))
+                .thenReturn(Mono.<Map<Long, Order.PaymentDetails>>never());
+
+        List<Order> result = orderEnricher.enrich(List.of(orderEntity));
+
+        assertNotNull(result.get(0).getProductDetails());
+        assertNull(result.get(0).getPaymentDetails());
+    }
+}
@@ -0,0 +1,90 @@
+package com.Tulip_Tech.OrderService.service;
+
+import com.Tulip_Tech.OrderService.exception.CustomException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderExporterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private OrderExporter orderExporter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        orderExporter = new OrderExporter(jdbcTemplate, objectMapper);
+
+        lenient().doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        lenient().when(resultSet.getLong(anyInt())).thenReturn(7L);
+        lenient().when(resultSet.getString(anyInt())).thenReturn("CASH");
+        lenient().when(resultSet.getString(8)).thenReturn("Mouse, \"wireless\"");
+        lenient().when(resultSet.getObject(5, LocalDateTime.class)).thenReturn(LocalDateTime.of(2025, 1, 2, 3, 4, 5));
+    }
+
+    @DisplayName("Export - NDJSON writes one JSON object per line")
+    @Test
+    void when_ndjson_then_one_object_per_line() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        orderExporter.export(OrderExporter.Format.NDJSON, null, false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, lines.length);
+        JsonNode order = objectMapper.readTree(lines[0]);
+        assertEquals(7L, order.get("orderId").asLong());
+        assertEquals("2025-01-02T03:04:05Z", order.get("orderDate").asText());
+        assertEquals("Mouse, \"wireless\"", order.get("productName").asText());
+        assertTrue(order.get("paymentDate").isNull());
+    }
+
+    @DisplayName("Export - CSV quotes values with commas and quotes, gzip round-trips")
+    @Test
+    void when_csv_gzip_then_escaped_and_compressed() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        orderExporter.export(OrderExporter.Format.CSV, 100L, true, out);
+
+        String csv = new String(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes(), StandardCharsets.UTF_8);
+        String[] lines = csv.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("orderId,productId,quantity,orderStatus,orderDate"));
+        assertTrue(lines[1].contains(",2025-01-02T03:04:05Z,"));
+        assertTrue(lines[1].contains(",\"Mouse, \"\"wireless\"\"\","));
+    }
+
+    @Test
+    void unknown_format_is_rejected() {
+        assertThrows(CustomException.class, () -> OrderExporter.Format.of("xml"));
+    }
+}
@@ -1,25 +1,43 @@
 package com.Tulip_Tech.OrderService.service;
 
 import com.Tulip_Tech.OrderService.client.PaymentServiceClient;
+import com.Tulip_Tech.OrderService.client.InventoryLeases;
+import com.Tulip_Tech.OrderService.client.ProductDetailsCache;
 import com.Tulip_Tech.OrderService.client.ProductServiceClient;
+import com.Tulip_Tech.OrderService.client.ReduceQuantityCoalescer;
 import com.Tulip_Tech.OrderService.entity.OrderEntity;
 import com.Tulip_Tech.OrderService.exception.CustomException;
+import com.Tulip_Tech.OrderService.exception.ServiceUnavailableException;
 import com.Tulip_Tech.OrderService.mapper.OrderMapper;
 import com.Tulip_Tech.OrderService.model.Dto.CreateOrderRequest;
+import com.Tulip_Tech.OrderService.model.Dto.CursorPage;
+import com.Tulip_Tech.OrderService.model.Dto.OrderPlacementResult;
+import com.Tulip_Tech.OrderService.model.Dto.OrderSearchCriteria;
+import com.Tulip_Tech.OrderService.model.Dto.OrderSearchPage;
+import com.Tulip_Tech.OrderService.model.Dto.OrderSummary;
+import com.Tulip_Tech.OrderService.model.Dto.OrderStatusResponse;
 import com.Tulip_Tech.OrderService.model.Payment_Mode;
 import com.Tulip_Tech.OrderService.model.domain.Order;
 import com.Tulip_Tech.OrderService.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -33,90 +51,94 @@ public class OrderServiceImplTest {
     @Mock
     private ProductServiceClient productServiceClient;
 
+    @Mock
+    private ReduceQuantityCoalescer reduceQuantityCoalescer;
+
     @Mock
     private PaymentServiceClient paymentServiceClient;
 
+    @Mock
+    private ProductDetailsCache productDetailsCache;
+
     @Mock
     private OrderMapper orderMapper;
 
-    @InjectMocks
-    private OrderServiceImpl orderServiceImpl;
+    @Mock
+    private OrderEnricher orderEnricher;
 
-    @DisplayName("Get Orders - Success Scenario")
-    @Test
-    void when_getAll_success(){
-        OrderEntity orderEntity = new OrderEntity(1L, 2L, 2L, "ACCEPT", Instant.now(), 1000L, Payment_Mode.CASH);
-        OrderEntity orderEntity1 = new OrderEntity(2L, 3L, 3L, "ACCEPT", Instant.now(), 600L, Payment_Mode.BKASH);
+    @Mock
+    private OrderWorkerPool orderWorkerPool;
 
-        List<OrderEntity> orderEntities = List.of(orderEntity,orderEntity1);
-        when(orderRepository.findAll()).thenReturn(orderEntities);
+    @Mock
+    private OrderWriter orderWriter;
 
-        Order mappedOrder1 = new Order(1L, 2L, 2L, Instant.now(),1000L, Payment_Mode.CASH,  null, null);
-        Order mappedOrder2 = new Order(2L, 3L, 3L,Instant.now(), 200L, Payment_Mode.BKASH, null, null);
+    @Mock
+    private InventoryLeases inventoryLeases;
 
-        when(orderMapper.EntityToOrder(orderEntity)).thenReturn(mappedOrder1);
-        when(orderMapper.EntityToOrder(orderEntity1)).thenReturn(mappedOrder2);
+    @Spy
+    private OrderStageMetrics stageMetrics = new OrderStageMetrics(new SimpleMeterRegistry());
 
-        when(productServiceClient.getProductById(orderEntity.getProductId())).thenReturn(new Order.ProductDetails(2L,"Iphone 17",500L,2L));
-        when(productServiceClient.getProductById(orderEntity1.getProductId())).thenReturn(new Order.ProductDetails(3L,"Samsung S50",300L,3L));
+    @InjectMocks
+    private OrderServiceImpl orderServiceImpl;
 
-        when(paymentServiceClient.getPaymentByOrderId(orderEntity.getOrderId()))
-                .thenReturn(new Order.PaymentDetails(1L, orderEntity.getOrderId(), Payment_Mode.CASH, "ref123", Instant.now(), "SUCCESS", orderEntity.getTotalAmount()));
+    @DisplayName("Get Order Page - full page returns next cursor")
+    @Test
+    void when_getPage_full_then_nextCursor_is_last_id(){
+        OrderEntity orderEntity = new OrderEntity(11L, 2L, 2L, "ACCEPT", Instant.now(), 1000L, Payment_Mode.CASH, null);
+        OrderEntity orderEntity1 = new OrderEntity(12L, 3L, 3L, "ACCEPT", Instant.now(), 600L, Payment_Mode.BKASH, null);
 
-        when(paymentServiceClient.getPaymentByOrderId(orderEntity1.getOrderId()))
-                .thenReturn(new Order.PaymentDetails(2L, orderEntity1.getOrderId(), Payment_Mode.BKASH, "ref456", Instant.now(), "SUCCESS", orderEntity1.getTotalAmount()));
+        when(orderRepository.findByOrderIdGreaterThanOrderByOrderIdAsc(10L, Limit.of(2)))
+                .thenReturn(List.of(orderEntity, orderEntity1));
+        when(orderEnricher.enrich(List.of(orderEntity, orderEntity1))).thenReturn(List.of(new Order(), new Order()));
 
-        List<Order> result = orderServiceImpl.getAll();
+        CursorPage<Order> page = orderServiceImpl.getPage(10L, 2, true);
 
-        verify(orderRepository).findAll();
-        verify(orderMapper,times(1)).EntityToOrder(orderEntity);
-        verify(orderMapper,times(1)).EntityToOrder(orderEntity1);
-        verify(productServiceClient,times(1)).getProductById(orderEntity.getProductId());
-        verify(productServiceClient,times(1)).getProductById(orderEntity1.getProductId());
-        verify(paymentServiceClient,times(1)).getPaymentByOrderId(orderEntity.getOrderId());
-        verify(paymentServiceClient,times(1)).getPaymentByOrderId(orderEntity1.getOrderId());
+        assertEquals(2, page.items().size());
+        assertEquals(12L, page.nextCursor());
+    }
 
-        assertEquals(2,result.size(),"Expected two orders returned");
-        assertNotNull(result.get(0).getProductDetails(),"First order's product details should not be null");
-        assertNotNull(result.get(1).getProductDetails(),"Second order's product details should not be null");
-        assertNotNull(result.get(0).getPaymentDetails(),"First order's payment details should not be null");
-        assertNotNull(result.get(1).getPaymentDetails(),"Second order's payment details should not be null");
+    @DisplayName("Get Order Page - short page has no next cursor")
+    @Test
+    void when_getPage_short_then_nextCursor_is_null(){
+        when(orderRepository.findByOrderIdGreaterThanOrderByOrderIdAsc(0L, Limit.of(50))).thenReturn(List.of());
 
-        System.out.println("Number of orders: " + result.size());
-        System.out.println("First order product details: " + result.get(0).getProductDetails().getProductName());
-        System.out.println("Second order payment details: " + result.get(1).getPaymentDetails());
+        CursorPage<Order> page = orderServiceImpl.getPage(null, 50, false);
 
+        assertTrue(page.items().isEmpty());
+        assertNull(page.nextCursor());
+        verifyNoInteractions(orderMapper, productServiceClient, paymentServiceClient);
     }
 
-    // java
+    @DisplayName("Get Order Page - served from snapshots unless live is asked for")
     @Test
-    void when_getAll_Fails() {
-
-        when(orderRepository.findAll())
-                .thenThrow(new CustomException("No orders found", HttpStatus.NOT_FOUND));
+    void when_getPage_not_live_then_no_enrichment(){
+        OrderEntity orderEntity = new OrderEntity(11L, 2L, 2L, "CREATED", Instant.now(), 1000L, Payment_Mode.CASH, null);
+        Order mapped = new Order();
 
-        CustomException thrown = assertThrows(
-                CustomException.class,
-                () -> orderServiceImpl.getAll()
-        );
+        when(orderRepository.findByOrderIdGreaterThanOrderByOrderIdAsc(0L, Limit.of(50))).thenReturn(List.of(orderEntity));
+        when(orderMapper.EntityToOrder(orderEntity)).thenReturn(mapped);
 
-        assertEquals("No orders found", thrown.getMessage());
-        assertEquals(HttpStatus.NOT_FOUND, thrown.getHttpStatus());
-        System.out.println("Exception Message: " + thrown.getMessage());
-        System.out.println("HTTP Status: " + thrown.getHttpStatus());
+        CursorPage<Order> page = orderServiceImpl.getPage(null, 50, false);
 
-        verify(orderRepository).findAll();
-        verifyNoMoreInteractions(orderMapper, productServiceClient, paymentServiceClient);
+        assertEquals(List.of(mapped), page.items());
+        verifyNoInteractions(orderEnricher, productServiceClient, paymentServiceClient);
     }
 
+    @DisplayName("Search Orders - full page carries the keyset of its last row")
     @Test
-    void when_getAll_returnsNull_then_throwNullPointerException(){
-        when(orderRepository.findAll()).thenReturn(null);
-
-        assertThrows(NullPointerException.class, () -> orderServiceImpl.getAll());
-
-        verify(orderRepository).findAll();
-        verifyNoMoreInteractions(orderMapper, productServiceClient, paymentServiceClient);
+    void when_search_full_then_cursor_from_last_row(){
+        OrderSearchCriteria criteria = new OrderSearchCriteria("CREATED", null, null, null, null, null, null);
+        Instant lastDate = Instant.parse("2025-01-02T00:00:00Z");
+        when(orderRepository.search(criteria, 2)).thenReturn(List.of(
+                new OrderSummary(3L, 2L, 1L, "CREATED", Instant.parse("2025-01-01T00:00:00Z"), 100L, Payment_Mode.CASH),
+                new OrderSummary(9L, 4L, 1L, "CREATED", lastDate, 100L, Payment_Mode.CASH)));
+
+        OrderSearchPage page = orderServiceImpl.search(criteria, 2);
+
+        assertEquals(2, page.items().size());
+        assertEquals(lastDate, page.nextAfterDate());
+        assertEquals(9L, page.nextAfterId());
+        verifyNoInteractions(orderEnricher, productServiceClient, paymentServiceClient);
     }
 
     @DisplayName("Place Order - Success Scenario")
@@ -124,14 +146,13 @@ public class OrderServiceImplTest {
     void test_when_place_order_success(){
         CreateOrderRequest req = new CreateOrderRequest(2L, 3L, 1500L, Payment_Mode.CASH);
 
-        OrderEntity oe = new OrderEntity(1L, req.productId(), req.quantity(), "CREATED", Instant.now(), req.totalAmount(), req.payment_mode());
-        OrderEntity save = new OrderEntity(1L,oe.getProductId(), oe.getQuantity(), oe.getOrderStatus(), oe.getOrderDate(), oe.getTotalAmount(), oe.getPayment_mode());
+        OrderEntity oe = new OrderEntity(1L, req.productId(), req.quantity(), "CREATED", Instant.now(), req.totalAmount(), req.payment_mode(), null);
+        OrderEntity save = new OrderEntity(1L,oe.getProductId(), oe.getQuantity(), oe.getOrderStatus(), oe.getOrderDate(), oe.getTotalAmount(), oe.getPayment_mode(), null);
 
         when(orderMapper.createOrderEntity(req)).thenReturn(oe);
-        when(orderRepository.save(oe)).thenReturn(save);
+        when(orderWriter.persistWithPayment(oe)).thenReturn(save);
 
-        doNothing().when(productServiceClient).reduceQuantity(req.productId(), req.quantity());
-        doNothing().when(paymentServiceClient).doPayment(any());
+        doNothing().when(reduceQuantityCoalescer).reduceQuantity(req.productId(), req.quantity());
 
         ResponseEntity<?> resp = orderServiceImpl.placeOrder(req);
 
@@ -139,11 +160,200 @@ public class OrderServiceImplTest {
         System.out.println(resp.getBody());
         assertEquals(save.getOrderId(), resp.getBody());
 
-        verify(productServiceClient).reduceQuantity(req.productId(), req.quantity());
+        verify(reduceQuantityCoalescer).reduceQuantity(req.productId(), req.quantity());
+        verify(productDetailsCache, never()).invalidate(req.productId());
         verify(orderMapper).createOrderEntity(req);
+        verify(orderWriter).persistWithPayment(oe);
+        verifyNoInteractions(paymentServiceClient);
+
+    }
+
+    @DisplayName("Place Order - repeat orders for a product are priced from the cache")
+    @Test
+    void when_same_product_ordered_twice_then_fetched_once(){
+        ProductDetailsCache cache = new ProductDetailsCache(productServiceClient, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(10), Duration.ofMinutes(2), Duration.ofSeconds(30));
+        OrderServiceImpl service = new OrderServiceImpl(orderRepository, reduceQuantityCoalescer, cache, new OrderMapper(),
+                orderWriter, orderEnricher, null, orderWorkerPool, inventoryLeases, stageMetrics);
+        CreateOrderRequest req = new CreateOrderRequest(2L, 3L, 1500L, Payment_Mode.CASH);
+
+        when(productServiceClient.fetchProductById(2L)).thenReturn(Mono.just(new Order.ProductDetails(2L, "Keyboard", 500L, 40L)));
+        when(orderWriter.persistWithPayment(any(OrderEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertEquals(HttpStatus.OK, service.placeOrder(req).getStatusCode());
+        assertEquals(HttpStatus.OK, service.placeOrder(req).getStatusCode());
+
+        verify(reduceQuantityCoalescer, times(2)).reduceQuantity(2L, 3L);
+        verify(productServiceClient, times(1)).fetchProductById(2L);
+    }
+
+    @DisplayName("Place Order Async - accepted as PENDING")
+    @Test
+    void when_placeOrderAsync_then_accepted_as_pending(){
+        CreateOrderRequest req = new CreateOrderRequest(2L, 3L, 1500L, Payment_Mode.CASH);
+        OrderEntity oe = new OrderEntity(5L, req.productId(), req.quantity(), "CREATED", Instant.now(), req.totalAmount(), req.payment_mode(), null);
+
+        when(orderMapper.createOrderEntity(req)).thenReturn(oe);
+        when(orderWorkerPool.accept(any(), any(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+
+        ResponseEntity<?> resp = orderServiceImpl.placeOrderAsync(req);
+
+        assertEquals(HttpStatus.ACCEPTED, resp.getStatusCode());
+        assertEquals(5L, resp.getBody());
+        assertEquals("PENDING", oe.getOrderStatus());
         verify(orderRepository).save(oe);
-        verify(paymentServiceClient).doPayment(any());
+        verifyNoInteractions(reduceQuantityCoalescer, paymentServiceClient);
+    }
+
+    @DisplayName("Place Order Async - full queue returns 503")
+    @Test
+    void when_placeOrderAsync_queue_full_then_service_unavailable(){
+        CreateOrderRequest req = new CreateOrderRequest(2L, 3L, 1500L, Payment_Mode.CASH);
+
+        when(orderWorkerPool.accept(any(), any(), any()))
+                .thenThrow(new ServiceUnavailableException("Order queue is full, try again later", HttpStatus.SERVICE_UNAVAILABLE));
 
+        ResponseEntity<?> resp = orderServiceImpl.placeOrderAsync(req);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, resp.getStatusCode());
+        verifyNoInteractions(orderRepository, productServiceClient, paymentServiceClient);
+    }
+
+    @DisplayName("Place Order Async - an order the workers refuse is marked FAILED")
+    @Test
+    void when_placeOrderAsync_workers_refuse_then_failed(){
+        CreateOrderRequest req = new CreateOrderRequest(2L, 3L, 1500L, Payment_Mode.CASH);
+        OrderEntity oe = new OrderEntity(5L, req.productId(), req.quantity(), null, Instant.now(), req.totalAmount(), req.payment_mode(), null);
+
+        when(orderMapper.createOrderEntity(req)).thenReturn(oe);
+        when(orderWorkerPool.accept(any(), any(), any())).thenAnswer(invocation -> {
+            OrderEntity admitted = invocation.<Supplier<OrderEntity>>getArgument(0).get();
+            invocation.<Consumer<OrderEntity>>getArgument(2).accept(admitted);
+            throw new ServiceUnavailableException("Order workers are shutting down, try again later", HttpStatus.SERVICE_UNAVAILABLE);
+        });
+
+        ResponseEntity<?> resp = orderServiceImpl.placeOrderAsync(req);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, resp.getStatusCode());
+        assertEquals("FAILED", oe.getOrderStatus());
+        verify(orderRepository, times(2)).save(oe);
+        verifyNoInteractions(reduceQuantityCoalescer);
+    }
+
+    @DisplayName("Place Order Async - invalid request is rejected before queueing")
+    @Test
+    void when_placeOrderAsync_invalid_then_bad_request(){
+        ResponseEntity<?> resp = orderServiceImpl.placeOrderAsync(new CreateOrderRequest(2L, 0L, 1500L, Payment_Mode.CASH));
+
+        assertEquals(HttpStatus.BAD_REQUEST, resp.getStatusCode());
+        verifyNoInteractions(orderWorkerPool, orderRepository);
+    }
+
+    @DisplayName("Complete Pending Order - inventory failure marks the order FAILED")
+    @Test
+    void when_pending_order_inventory_fails_then_failed(){
+        OrderEntity oe = new OrderEntity(5L, 2L, 3L, "PENDING", Instant.now(), 1500L, Payment_Mode.CASH, null);
+
+        doThrow(new CustomException("Insufficient quantity", HttpStatus.BAD_REQUEST)).when(reduceQuantityCoalescer).reduceQuantity(2L, 3L);
+
+        orderServiceImpl.completePendingOrder(oe);
+
+        assertEquals("FAILED", oe.getOrderStatus());
+        verify(orderRepository).save(oe);
+        verify(inventoryLeases, never()).release(anyLong(), anyLong());
+        verifyNoInteractions(orderWriter);
     }
 
-}
\ No newline at end of file
+    @DisplayName("Complete Pending Order - a failed save after the stock was taken gives it back")
+    @Test
+    void when_pending_order_save_fails_after_inventory_then_stock_restored(){
+        OrderEntity oe = new OrderEntity(5L, 2L, 3L, "PENDING", Instant.now(), 1500L, Payment_Mode.CASH, null);
+        when(orderWriter.persistWithPayment(oe)).thenThrow(new IllegalStateException("lock wait timeout"));
+
+        orderServiceImpl.completePendingOrder(oe);
+
+        assertEquals("FAILED", oe.getOrderStatus());
+        verify(reduceQuantityCoalescer).reduceQuantity(2L, 3L);
+        verify(inventoryLeases).release(2L, 3L);
+        verify(orderRepository).save(oe);
+    }
+
+    @DisplayName("Complete Pending Order - success queues the payment with the order")
+    @Test
+    void when_pending_order_completes_then_created_with_payment(){
+        OrderEntity oe = new OrderEntity(5L, 2L, 3L, "PENDING", Instant.now(), 1500L, Payment_Mode.CASH, null);
+
+        orderServiceImpl.completePendingOrder(oe);
+
+        assertEquals("CREATED", oe.getOrderStatus());
+        verify(orderWriter).persistWithPayment(oe);
+        verifyNoInteractions(paymentServiceClient);
+    }
+
+    @DisplayName("Order Status - found and not found")
+    @Test
+    void when_getOrderStatus_then_status_or_not_found(){
+        OrderEntity oe = new OrderEntity(5L, 2L, 3L, "PENDING", Instant.now(), 1500L, Payment_Mode.CASH, null);
+        when(orderRepository.findById(5L)).thenReturn(Optional.of(oe));
+        when(orderRepository.findById(6L)).thenReturn(Optional.empty());
+
+        ResponseEntity<?> found = orderServiceImpl.getOrderStatus(5L);
+        ResponseEntity<?> missing = orderServiceImpl.getOrderStatus(6L);
+
+        assertEquals(new OrderStatusResponse(5L, "PENDING"), found.getBody());
+        assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+    }
+
+    @DisplayName("Place Orders - one bad item does not fail the batch")
+    @Test
+    void when_placeOrders_mixed_then_per_item_results(){
+        CreateOrderRequest ok = new CreateOrderRequest(2L, 3L, 1500L, Payment_Mode.CASH);
+        CreateOrderRequest invalid = new CreateOrderRequest(2L, 0L, 1500L, Payment_Mode.CASH);
+        CreateOrderRequest outOfStock = new CreateOrderRequest(4L, 9L, 900L, Payment_Mode.BKASH);
+        OrderEntity oe = new OrderEntity(7L, ok.productId(), ok.quantity(), "CREATED", Instant.now(), ok.totalAmount(), ok.payment_mode(), null);
+
+        doNothing().when(reduceQuantityCoalescer).reduceQuantity(2L, 3L);
+        doThrow(new CustomException("Insufficient quantity", HttpStatus.BAD_REQUEST)).when(reduceQuantityCoalescer).reduceQuantity(4L, 9L);
+        when(orderMapper.createOrderEntity(ok)).thenReturn(oe);
+
+        ResponseEntity<?> resp = orderServiceImpl.placeOrders(List.of(ok, invalid, outOfStock));
+
+        assertEquals(HttpStatus.MULTI_STATUS, resp.getStatusCode());
+        assertEquals(List.of(
+                OrderPlacementResult.placed(0, 7L),
+                OrderPlacementResult.failed(1, HttpStatus.BAD_REQUEST, "Quantity must be greater than zero"),
+                OrderPlacementResult.failed(2, HttpStatus.BAD_REQUEST, "Insufficient quantity")), resp.getBody());
+        verify(reduceQuantityCoalescer).reduceQuantity(2L, 3L);
+        verify(reduceQuantityCoalescer).reduceQuantity(4L, 9L);
+        verify(reduceQuantityCoalescer, never()).reduceQuantity(2L, 0L);
+        verify(orderWriter).persistAllWithPayment(List.of(oe));
+        verify(inventoryLeases, never()).release(any(), anyLong());
+    }
+
+    @DisplayName("Place Orders - a failed save gives the stock of every accepted item back")
+    @Test
+    void when_placeOrders_save_fails_then_stock_restored(){
+        CreateOrderRequest first = new CreateOrderRequest(2L, 3L, 1500L, Payment_Mode.CASH);
+        CreateOrderRequest second = new CreateOrderRequest(4L, 1L, 900L, Payment_Mode.BKASH);
+        OrderEntity firstEntity = new OrderEntity(null, 2L, 3L, "CREATED", Instant.now(), 1500L, Payment_Mode.CASH, null);
+        OrderEntity secondEntity = new OrderEntity(null, 4L, 1L, "CREATED", Instant.now(), 900L, Payment_Mode.BKASH, null);
+
+        when(orderMapper.createOrderEntity(first)).thenReturn(firstEntity);
+        when(orderMapper.createOrderEntity(second)).thenReturn(secondEntity);
+        when(inventoryLeases.tryReserve(2L, 3L)).thenReturn(false);
+        when(inventoryLeases.tryReserve(4L, 1L)).thenReturn(true);
+        doThrow(new IllegalStateException("connection reset")).when(orderWriter).persistAllWithPayment(List.of(firstEntity, secondEntity));
+
+        ResponseEntity<?> resp = orderServiceImpl.placeOrders(List.of(first, second));
+
+        assertEquals(HttpStatus.MULTI_STATUS, resp.getStatusCode());
+        assertEquals(List.of(
+                OrderPlacementResult.failed(0, HttpStatus.INTERNAL_SERVER_ERROR, "Order could not be saved"),
+                OrderPlacementResult.failed(1, HttpStatus.INTERNAL_SERVER_ERROR, "Order could not be saved")), resp.getBody());
+        // the first item went to product-service, the second came out of the lease; both are given back
+        verify(reduceQuantityCoalescer).reduceQuantity(2L, 3L);
+        verify(reduceQuantityCoalescer, never()).reduceQuantity(4L, 1L);
+        verify(inventoryLeases).release(2L, 3L);
+        verify(inventoryLeases).release(4L, 1L);
+    }
+}
@@ -0,0 +1,49 @@
+package com.Tulip_Tech.OrderService.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderStageMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OrderStageMetrics stageMetrics = new OrderStageMetrics(meterRegistry);
+
+    @DisplayName("Stage metrics - a failing step is recorded as error and rethrown")
+    @Test
+    void when_step_fails_then_error_recorded() {
+        assertEquals(3, stageMetrics.time(OrderStageMetrics.Stage.MAPPER, () -> 3));
+        assertThrows(IllegalStateException.class, () -> stageMetrics.run(OrderStageMetrics.Stage.INVENTORY, () -> {
+            throw new IllegalStateException("down");
+        }));
+
+        assertEquals(1, stageTimer("mapper", "success").count());
+        assertEquals(1, stageTimer("inventory", "error").count());
+        assertEquals(0, stageTimer("inventory", "success").count());
+    }
+
+    @DisplayName("Stage metrics - timers publish histogram buckets for percentile queries")
+    @Test
+    void timers_publish_histograms() {
+        // SimpleMeterRegistry keeps no buckets; the Prometheus registry is the one that exposes them
+        PrometheusMeterRegistry prometheus = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        new OrderStageMetrics(prometheus).recordEnrichment("payment", System.nanoTime(), "timeout");
+
+        Timer timer = prometheus.get(OrderStageMetrics.ENRICHMENT).tag("dependency", "payment").tag("outcome", "timeout").timer();
+        assertEquals(1, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.NANOSECONDS) > 0);
+        assertTrue(prometheus.scrape().lines().anyMatch(line -> line.startsWith("order_enrichment_seconds_bucket{")
+                && line.contains("dependency=\"payment\"") && line.contains("outcome=\"timeout\"")));
+    }
+
+    private Timer stageTimer(String stage, String outcome) {
+        return meterRegistry.get(OrderStageMetrics.PLACE_STAGE).tag("stage", stage).tag("outcome", outcome).timer();
+    }
+}
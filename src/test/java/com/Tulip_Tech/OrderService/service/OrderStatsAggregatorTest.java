@@ -0,0 +1,153 @@
+package com.Tulip_Tech.OrderService.service;
+
+import com.Tulip_Tech.OrderService.entity.OrderEntity;
+import com.Tulip_Tech.OrderService.entity.OrderStatsCheckpointEntity;
+import com.Tulip_Tech.OrderService.entity.OrderStatsEntity;
+import com.Tulip_Tech.OrderService.entity.OrderStatsKey;
+import com.Tulip_Tech.OrderService.exception.CustomException;
+import com.Tulip_Tech.OrderService.model.Dto.OrderStats;
+import com.Tulip_Tech.OrderService.model.Dto.StatTotals;
+import com.Tulip_Tech.OrderService.model.OrderStatus;
+import com.Tulip_Tech.OrderService.model.OrdersPlacedEvent;
+import com.Tulip_Tech.OrderService.model.Payment_Mode;
+import com.Tulip_Tech.OrderService.repository.OrderStatsCheckpointRepository;
+import com.Tulip_Tech.OrderService.repository.OrderStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderStatsAggregatorTest {
+
+    private static final Instant HOUR = Instant.now().truncatedTo(ChronoUnit.HOURS).minus(3, ChronoUnit.HOURS);
+
+    @Mock
+    private OrderStatsRepository orderStatsRepository;
+
+    @Mock
+    private OrderStatsCheckpointRepository checkpointRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private OrderStatsAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new OrderStatsAggregator(orderStatsRepository, checkpointRepository, jdbcTemplate, transactionManager, Duration.ofMinutes(15));
+    }
+
+    @DisplayName("Stats - placed orders are summed per hour, product and payment mode")
+    @Test
+    void when_orders_placed_then_totals_per_dimension() {
+        aggregator.onOrdersPlaced(new OrdersPlacedEvent(List.of(
+                order(1L, 2L, 200L, Payment_Mode.CASH, HOUR.plusSeconds(60)),
+                order(1L, 1L, 100L, Payment_Mode.BKASH, HOUR.plusSeconds(120)),
+                order(2L, 5L, 500L, Payment_Mode.CASH, HOUR.plusSeconds(3_600)))));
+
+        OrderStats stats = aggregator.stats(HOUR, HOUR.plusSeconds(7_200));
+
+        assertEquals(new StatTotals(3, 8, 800), stats.total());
+        assertEquals(new StatTotals(2, 3, 300), stats.byProduct().get(1L));
+        assertEquals(new StatTotals(2, 7, 700), stats.byPaymentMode().get(Payment_Mode.CASH));
+        assertEquals(new StatTotals(2, 3, 300), stats.byHour().get(HOUR));
+        assertEquals("memory", stats.source());
+
+        OrderStats firstHour = aggregator.stats(HOUR, HOUR.plusSeconds(3_600));
+        assertEquals(new StatTotals(2, 3, 300), firstHour.total());
+    }
+
+    @DisplayName("Stats - rebuild loads the checkpoint and aggregates only the open hours")
+    @Test
+    void when_rebuilt_then_checkpoint_plus_tail() throws Exception {
+        Instant closedUntil = HOUR.plusSeconds(3_600);
+        when(checkpointRepository.findById(OrderStatsCheckpointEntity.ID))
+                .thenReturn(Optional.of(new OrderStatsCheckpointEntity(OrderStatsCheckpointEntity.ID, closedUntil)));
+        when(orderStatsRepository.findHours(any(), eq(closedUntil))).thenReturn(List.of(
+                new OrderStatsEntity(new OrderStatsKey(HOUR, OrderStatsEntity.PRODUCT, "1"), 4, 8, 800),
+                new OrderStatsEntity(new OrderStatsKey(HOUR, OrderStatsEntity.PAYMENT_MODE, "CASH"), 4, 8, 800)));
+        when(resultSet.getLong(1)).thenReturn(closedUntil.getEpochSecond() / 3_600);
+        when(resultSet.getLong(2)).thenReturn(1L);
+        when(resultSet.getString(3)).thenReturn("NAGAD");
+        when(resultSet.getLong(4)).thenReturn(1L);
+        when(resultSet.getLong(5)).thenReturn(3L);
+        when(resultSet.getLong(6)).thenReturn(300L);
+        aggregateReturnsRow();
+
+        aggregator.rebuild();
+
+        OrderStats stats = aggregator.stats(HOUR, HOUR.plusSeconds(7_200));
+        assertEquals(new StatTotals(5, 11, 1_100), stats.total());
+        assertEquals(new StatTotals(5, 11, 1_100), stats.byProduct().get(1L));
+        assertEquals(new StatTotals(4, 8, 800), stats.byPaymentMode().get(Payment_Mode.CASH));
+        assertEquals(new StatTotals(1, 3, 300), stats.byPaymentMode().get(Payment_Mode.NAGAD));
+    }
+
+    @DisplayName("Stats - checkpoint replaces closed hours in place and keeps open hours and their events")
+    @Test
+    void when_checkpointed_then_closed_hours_replaced_in_place() throws Exception {
+        Instant current = Instant.now().truncatedTo(ChronoUnit.HOURS);
+        aggregator.onOrdersPlaced(new OrdersPlacedEvent(List.of(
+                order(1L, 1L, 100L, Payment_Mode.CASH, HOUR.plusSeconds(60)),
+                order(1L, 1L, 100L, Payment_Mode.CASH, current.plusSeconds(1)),
+                order(1L, 1L, 100L, Payment_Mode.CASH, current.minus(40, ChronoUnit.DAYS)))));
+        when(checkpointRepository.lockById(OrderStatsCheckpointEntity.ID))
+                .thenReturn(Optional.of(new OrderStatsCheckpointEntity(OrderStatsCheckpointEntity.ID, HOUR)));
+        // the closed hour as aggregated from orders_tbl, including another instance's orders
+        when(resultSet.getLong(1)).thenReturn(HOUR.getEpochSecond() / 3_600);
+        when(resultSet.getLong(2)).thenReturn(1L);
+        when(resultSet.getString(3)).thenReturn("NAGAD");
+        when(resultSet.getLong(4)).thenReturn(3L);
+        when(resultSet.getLong(5)).thenReturn(3L);
+        when(resultSet.getLong(6)).thenReturn(300L);
+        aggregateReturnsRow();
+
+        aggregator.checkpoint();
+
+        verify(orderStatsRepository).saveAll(argThat((List<OrderStatsEntity> rows) -> !rows.isEmpty()));
+        assertEquals(new StatTotals(3, 3, 300), aggregator.stats(HOUR, HOUR.plusSeconds(3_600)).total());
+        assertEquals(new StatTotals(1, 1, 100), aggregator.stats(current, current.plusSeconds(3_600)).total());
+        assertEquals(2, aggregator.hoursHeld());
+    }
+
+    @Test
+    void range_over_the_limit_is_rejected() {
+        assertThrows(CustomException.class, () -> aggregator.stats(HOUR, HOUR.plus(Duration.ofDays(40))));
+        assertThrows(CustomException.class, () -> aggregator.stats(HOUR, HOUR));
+        assertThrows(CustomException.class, () -> aggregator.stats(HOUR.minus(Duration.ofDays(40)), HOUR));
+    }
+
+    private void aggregateReturnsRow() {
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq(OrderStatus.CREATED.name()), any(), any());
+    }
+
+    private static OrderEntity order(Long productId, Long quantity, Long totalAmount, Payment_Mode mode, Instant orderDate) {
+        return new OrderEntity(null, productId, quantity, OrderStatus.CREATED.name(), orderDate, totalAmount, mode, null);
+    }
+}
@@ -0,0 +1,29 @@
+package com.Tulip_Tech.OrderService.service;
+
+import com.Tulip_Tech.OrderService.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderWorkerPoolTest {
+
+    @DisplayName("Worker pool - an order refused after admission frees its slot and is handed to the rejection")
+    @Test
+    void when_workers_stopped_then_slot_released_and_rejected() throws InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OrderWorkerPool pool = new OrderWorkerPool(1, 2, meterRegistry);
+        pool.shutdown();
+        List<String> refused = new ArrayList<>();
+
+        assertThrows(ServiceUnavailableException.class, () -> pool.accept(() -> "order-5", order -> fail("must not run"), refused::add));
+
+        assertEquals(List.of("order-5"), refused);
+        assertEquals(0, pool.pending());
+        assertEquals(1.0, meterRegistry.counter("order.async.rejected").count());
+    }
+}
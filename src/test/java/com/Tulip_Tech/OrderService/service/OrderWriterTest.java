@@ -0,0 +1,166 @@
+package com.Tulip_Tech.OrderService.service;
+
+import com.Tulip_Tech.OrderService.entity.OrderEntity;
+import com.Tulip_Tech.OrderService.exception.ServiceUnavailableException;
+import com.Tulip_Tech.OrderService.model.OrderStatus;
+import com.Tulip_Tech.OrderService.model.OrdersPlacedEvent;
+import com.Tulip_Tech.OrderService.model.Payment_Mode;
+import com.Tulip_Tech.OrderService.repository.OrderRepository;
+import com.Tulip_Tech.OrderService.repository.PaymentOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderWriterTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private PaymentOutboxRepository paymentOutboxRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderWriter orderWriter;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        orderWriter.shutdown();
+    }
+
+    @DisplayName("Writer - concurrent single orders share one group commit")
+    @Test
+    void when_group_commit_then_one_transaction_for_the_batch() throws Exception {
+        // the batch fills up before the window ends, so the test does not depend on timing
+        orderWriter = writer(true, 4);
+
+        List<Throwable> failures = persistConcurrently(4);
+
+        assertTrue(failures.isEmpty());
+        verify(orderRepository, times(1)).saveAll(argThat(orders -> ((List<?>) orders).size() == 4));
+        verify(paymentOutboxRepository, times(1)).saveAll(anyList());
+        verify(transactionManager, times(1)).commit(any());
+        verify(eventPublisher).publishEvent(any(OrdersPlacedEvent.class));
+    }
+
+    @DisplayName("Writer - a failed group commit fails every caller in the batch")
+    @Test
+    void when_group_commit_fails_then_every_caller_gets_the_error() throws Exception {
+        orderWriter = writer(true, 3);
+        when(orderRepository.saveAll(anyList())).thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        List<Throwable> failures = persistConcurrently(3);
+
+        assertEquals(3, failures.size());
+        failures.forEach(failure -> assertInstanceOf(DataAccessResourceFailureException.class, failure));
+        verify(transactionManager).rollback(any());
+    }
+
+    @DisplayName("Writer - without group commit each order gets its own transaction")
+    @Test
+    void when_group_commit_disabled_then_transaction_per_order() {
+        orderWriter = writer(false, 64);
+
+        orderWriter.persistWithPayment(order());
+        orderWriter.persistWithPayment(order());
+
+        verify(orderRepository, times(2)).saveAll(anyList());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @DisplayName("Writer - a write no committer picked up in time fails with 503 and is never written")
+    @Test
+    void when_group_commit_wait_times_out_then_unavailable() throws Exception {
+        orderWriter = new OrderWriter(orderRepository, paymentOutboxRepository, eventPublisher, transactionManager, new SimpleMeterRegistry(),
+                true, Duration.ZERO, 1, 1, Duration.ofMillis(200));
+        CountDownLatch inFlight = new CountDownLatch(1);
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            inFlight.countDown();
+            Thread.sleep(600);
+            return invocation.getArgument(0);
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // the only committer is busy with this one past the timeout; its caller still gets the result
+            Future<?> first = executor.submit(() -> orderWriter.persistWithPayment(order()));
+            assertTrue(inFlight.await(5, TimeUnit.SECONDS));
+
+            assertThrows(ServiceUnavailableException.class, () -> orderWriter.persistWithPayment(order()));
+
+            first.get(5, TimeUnit.SECONDS);
+            Thread.sleep(300);
+            verify(orderRepository, times(1)).saveAll(anyList());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @DisplayName("Writer - a timed out transaction answers 503 like a timed out group commit")
+    @Test
+    void when_transaction_times_out_then_unavailable() {
+        orderWriter = writer(false, 64);
+        when(orderRepository.saveAll(anyList())).thenThrow(new QueryTimeoutException("statement cancelled"));
+
+        assertThrows(ServiceUnavailableException.class, () -> orderWriter.persistWithPayment(order()));
+        verify(transactionManager).rollback(any());
+    }
+
+    private OrderWriter writer(boolean groupCommit, int maxBatch) {
+        return new OrderWriter(orderRepository, paymentOutboxRepository, eventPublisher, transactionManager, new SimpleMeterRegistry(),
+                groupCommit, Duration.ofSeconds(5), maxBatch, 1, Duration.ofSeconds(5));
+    }
+
+    private List<Throwable> persistConcurrently(int callers) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                calls.add(executor.submit(() -> orderWriter.persistWithPayment(order())));
+            }
+
+            List<Throwable> failures = new ArrayList<>();
+            for (Future<?> call : calls) {
+                try {
+                    call.get(5, TimeUnit.SECONDS);
+                } catch (ExecutionException ex) {
+                    failures.add(ex.getCause());
+                }
+            }
+            return failures;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static OrderEntity order() {
+        return new OrderEntity(null, 1L, 1L, OrderStatus.CREATED.name(), Instant.now(), 100L, Payment_Mode.CASH, null);
+    }
+}
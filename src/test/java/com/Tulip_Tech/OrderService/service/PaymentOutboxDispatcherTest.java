@@ -0,0 +1,138 @@
+package com.Tulip_Tech.OrderService.service;
+
+import com.Tulip_Tech.OrderService.client.PaymentServiceClient;
+import com.Tulip_Tech.OrderService.entity.OrderEntity;
+import com.Tulip_Tech.OrderService.entity.PaymentOutboxEntity;
+import com.Tulip_Tech.OrderService.exception.CustomException;
+import com.Tulip_Tech.OrderService.model.Dto.CreatePaymentRequest;
+import com.Tulip_Tech.OrderService.model.Payment_Mode;
+import com.Tulip_Tech.OrderService.model.domain.Order;
+import com.Tulip_Tech.OrderService.repository.OrderRepository;
+import com.Tulip_Tech.OrderService.repository.PaymentOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PaymentOutboxDispatcherTest {
+
+    @Mock
+    private PaymentOutboxRepository paymentOutboxRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private PaymentServiceClient paymentServiceClient;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PaymentOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new PaymentOutboxDispatcher(paymentOutboxRepository, orderRepository, paymentServiceClient, transactionManager, meterRegistry,
+                new OrderStageMetrics(meterRegistry), 10, 4, 3, Duration.ofSeconds(1), Duration.ofSeconds(30), Duration.ofMinutes(1));
+    }
+
+    @DisplayName("Outbox - delivered rows are marked done and the order snapshot updated")
+    @Test
+    void when_payment_sent_then_marked_done() {
+        PaymentOutboxEntity row = row(1L, 10L, 0);
+        OrderEntity orderEntity = new OrderEntity(10L, 2L, 1L, "CREATED", Instant.now(), 500L, Payment_Mode.CASH, null);
+        Instant paidAt = Instant.now();
+        when(paymentOutboxRepository.lockDue(any(), eq(10))).thenReturn(List.of(row));
+        when(paymentServiceClient.sendPayment(any(CreatePaymentRequest.class))).thenReturn(Mono.empty());
+        when(paymentServiceClient.fetchPaymentsByOrderIds(List.of(10L))).thenReturn(Mono.just(Map.of(10L,
+                new Order.PaymentDetails(77L, 10L, Payment_Mode.CASH, "ref-77", paidAt, "SUCCESS", 500L))));
+        when(orderRepository.findAllById(List.of(10L))).thenReturn(List.of(orderEntity));
+
+        dispatcher.dispatch();
+
+        verify(paymentServiceClient).sendPayment(new CreatePaymentRequest(10L, 500L, Payment_Mode.CASH, "Me"));
+        verify(paymentOutboxRepository).markDone(List.of(1L));
+        verify(paymentOutboxRepository, never()).saveAll(any());
+        assertEquals(1.0, meterRegistry.counter("payment.outbox.dispatched").count());
+        assertEquals(77L, orderEntity.getSnapshot().getPaymentId());
+        assertEquals("SUCCESS", orderEntity.getSnapshot().getPaymentStatus());
+        assertEquals(paidAt, orderEntity.getSnapshot().getPaymentDate());
+    }
+
+    @DisplayName("Outbox - 5xx is retried with backoff")
+    @Test
+    void when_payment_service_fails_then_retry_scheduled() {
+        PaymentOutboxEntity row = row(2L, 20L, 1);
+        when(paymentOutboxRepository.lockDue(any(), eq(10))).thenReturn(List.of(row));
+        when(paymentServiceClient.sendPayment(any(CreatePaymentRequest.class)))
+                .thenReturn(Mono.error(new CustomException("boom", HttpStatus.INTERNAL_SERVER_ERROR)));
+
+        Instant before = Instant.now();
+        dispatcher.dispatch();
+
+        assertEquals(PaymentOutboxEntity.PENDING, row.getStatus());
+        assertEquals(2, row.getAttempts());
+        assertFalse(row.getNextAttemptAt().isBefore(before.plusSeconds(2)));
+        verify(paymentOutboxRepository).saveAll(List.of(row));
+        assertEquals(1.0, meterRegistry.counter("payment.outbox.retries").count());
+    }
+
+    @DisplayName("Outbox - 4xx and exhausted retries are given up on")
+    @Test
+    void when_rejected_or_exhausted_then_failed() {
+        PaymentOutboxEntity rejected = row(3L, 30L, 0);
+        PaymentOutboxEntity exhausted = row(4L, 40L, 2);
+        when(paymentOutboxRepository.lockDue(any(), eq(10))).thenReturn(List.of(rejected, exhausted));
+        when(paymentServiceClient.sendPayment(any(CreatePaymentRequest.class)))
+                .thenReturn(Mono.error(new CustomException("Invalid amount", HttpStatus.BAD_REQUEST)))
+                .thenReturn(Mono.error(new CustomException("boom", HttpStatus.INTERNAL_SERVER_ERROR)));
+
+        dispatcher.dispatch();
+
+        assertEquals(PaymentOutboxEntity.FAILED, rejected.getStatus());
+        assertEquals(PaymentOutboxEntity.FAILED, exhausted.getStatus());
+        assertEquals(2.0, meterRegistry.counter("payment.outbox.failed").count());
+        verify(orderRepository).findAllById(argThat(ids -> ((List<Long>) ids).containsAll(List.of(30L, 40L))));
+        verifyNoMoreInteractions(orderRepository);
+    }
+
+    @Test
+    void backoff_doubles_up_to_the_cap() {
+        assertEquals(Duration.ofSeconds(1), dispatcher.backoffFor(1));
+        assertEquals(Duration.ofSeconds(8), dispatcher.backoffFor(4));
+        assertEquals(Duration.ofSeconds(30), dispatcher.backoffFor(12));
+    }
+
+    private static PaymentOutboxEntity row(Long id, Long orderId, int attempts) {
+        return PaymentOutboxEntity.builder()
+                .id(id)
+                .orderId(orderId)
+                .amount(500L)
+                .paymentMode(Payment_Mode.CASH)
+                .referenceNumber("Me")
+                .status(PaymentOutboxEntity.PENDING)
+                .attempts(attempts)
+                .nextAttemptAt(Instant.now())
+                .createdAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package com.Tulip_Tech.OrderService.service;
+
+import com.Tulip_Tech.OrderService.entity.OrderEntity;
+import com.Tulip_Tech.OrderService.exception.ServiceUnavailableException;
+import com.Tulip_Tech.OrderService.model.Payment_Mode;
+import com.Tulip_Tech.OrderService.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PendingOrderRecoveryTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderServiceImpl orderService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PendingOrderRecovery recovery;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        recovery = new PendingOrderRecovery(orderRepository, orderService, transactionManager, meterRegistry, Duration.ofMinutes(10), 10);
+    }
+
+    @DisplayName("Recovery - stale PENDING orders are claimed and queued again")
+    @Test
+    void when_stale_pending_then_requeued() {
+        Instant acceptedAt = Instant.now().minus(Duration.ofHours(1));
+        OrderEntity orderEntity = pending(5L, acceptedAt);
+        when(orderRepository.lockStalePending(any(), eq(10))).thenReturn(List.of(orderEntity));
+
+        recovery.recover();
+
+        verify(orderService).resumePendingOrder(orderEntity);
+        assertTrue(orderEntity.getOrderDate().isAfter(acceptedAt));
+        assertEquals(1.0, meterRegistry.counter("order.async.recovered").count());
+    }
+
+    @DisplayName("Recovery - a full queue stops the run")
+    @Test
+    void when_queue_full_then_recovery_stops() {
+        OrderEntity first = pending(5L, Instant.EPOCH);
+        OrderEntity second = pending(6L, Instant.EPOCH);
+        when(orderRepository.lockStalePending(any(), eq(10))).thenReturn(List.of(first, second));
+        doThrow(new ServiceUnavailableException("Order queue is full, try again later", HttpStatus.SERVICE_UNAVAILABLE))
+                .when(orderService).resumePendingOrder(first);
+
+        recovery.recover();
+
+        verify(orderService, never()).resumePendingOrder(second);
+        assertEquals(0.0, meterRegistry.counter("order.async.recovered").count());
+    }
+
+    private static OrderEntity pending(Long orderId, Instant orderDate) {
+        return new OrderEntity(orderId, 2L, 1L, "PENDING", orderDate, 500L, Payment_Mode.CASH, null);
+    }
+}